@@ -4,7 +4,6 @@ import structures.AVLSet;
 import structures.AVLHashMap;
 import structures.SimpleMap;
 import utils.Day;
-import utils.Moment;
 
 import java.util.Comparator;
 import java.util.Iterator;
@@ -21,14 +20,14 @@ import java.util.Set;
  */
 public class Airport{
 
-    private static final int ROUTE_SIZE = 30;
+    private static final int ROUTE_SIZE = 8;
+    private static final double EARTH_RADIUS_KM = 6371.0;
 
 	private String id;
 	private double latitude;
 	private double longitude;
 	private SimpleMap<Airport, Route> routes;
-	private Ticket incident;
-	private boolean visited;
+	private int index;
 
 	/**
 	 * Construye un aeropuerto
@@ -71,6 +70,23 @@ public class Airport{
 		return id;
 	}
 
+	/**
+	 * Devuelve el id denso del aeropuerto dentro de su {@link FlightAssistant}. No cambia
+	 * mientras el aeropuerto exista; el de un aeropuerto eliminado se reutiliza. Se usa para
+	 * indexar el estado de las busquedas.
+	 * @see SearchContext
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Asigna el id denso del aeropuerto
+	 */
+	void setIndex(int index) {
+		this.index = index;
+	}
+
 	/**
 	 * Devuelve la latitud del aeropuerto
 	 */
@@ -85,6 +101,28 @@ public class Airport{
 		return longitude;
 	}
 
+	/**
+	 * Devuelve la distancia en kilometros (sobre un circulo maximo) hasta otro aeropuerto
+	 */
+	public double distanceTo(Airport other) {
+		return greatCircleDistance(latitude, longitude, other.latitude, other.longitude);
+	}
+
+	/**
+	 * Distancia en kilometros entre dos puntos de la Tierra segun la formula del haversine
+	 * @param lat1 latitud del primer punto, en grados
+	 * @param lng1 longitud del primer punto, en grados
+	 * @param lat2 latitud del segundo punto, en grados
+	 * @param lng2 longitud del segundo punto, en grados
+	 */
+	public static double greatCircleDistance(double lat1, double lng1, double lat2, double lng2) {
+		double dLat = Math.toRadians(lat2 - lat1);
+		double dLng = Math.toRadians(lng2 - lng1);
+		double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(lat1))
+				* Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+		return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+	}
+
 	/**
 	 * Agrega un vuelo con origen en este aeropuerto
 	 * a la ruta existente entre este aeropuerto y el aeropuerto destino
@@ -182,21 +220,6 @@ public class Airport{
 		routes.clear();
 	}
 
-	/**
-	 * Devuelve un iterador de vuelos que despegan en un Moment posterior a el Moment dado como
-	 * parámetro.
-	 * @param to aeropuerto hacia el que van los vuelos pedidos.
-	 * @param fromMoment Momento desde el cual se devuelven los vuelos
-	 * @return iterador de tickets de dichos vuelos
-	 */
-	public HigherIterator iteratorOfHigherFlightsTo(Airport to, Moment fromMoment) {
-		Route route = routes.get(to);
-		if (route == null)
-			return null;
-		else
-			return route.iteratorOfHigherFlightsFrom(this, fromMoment);
-	}
-	
 	/**
 	 * Retorna un Set con todos los aeropuertos a los cuales se puede llegar con vuelo directo
 	 * @return Set de los aeropuertos conectados
@@ -317,53 +340,6 @@ public class Airport{
 		return route.getQuickestFrom(this, day);
 	}
 
-	public void nodeRefresh(){
-		visited = false;
-		incident = null;
-	}
-
-	/**
-	 * Marca el aeropuerto como visitado
-	 * @see InfinityDijkstra
-	 */
-	public void visit(){
-		visited = true;
-	}
-
-	/**
-	 * Marca el aeropuerto como no visitado
-	 */
-	public void unvisit(){
-		visited = false;
-	}
-
-	/**
-	 * Consulta si un aeropuerto fue visitado
-	 * @return true si el aeropuerto fue visitado, false en caso contrario
-	 */
-	public boolean visited() {
-		return visited;
-	}
-
-	/**
-	 * Retorna el <tt>Ticket</tt> con informacion acerca del vuelo incidente
-	 * @return Ticket con informacion acerca del vuelo que llega al aeropuerto
-	 * @see InfinityDijkstra
-	 * @see Ticket
-	 */
-	public Ticket getIncident(){
-		return incident;
-	}
-
-	/**
-	 * Setea el vuelo que llega al aeropuerto
-	 * @param <tt>Ticket</tt> con informacion acerca del vuelo incidente
-	 * @see InfinityDijkstra
-	 */
-	public void setIncident(Ticket t){
-		incident = t;
-	}
-
 	/**
 	 * Retorna un {@link AVLSet} con los horarios de los vuelos que salen del Aeropuerto
 	 * un día determinado
@@ -6,15 +6,30 @@ package flightassistant;
  * @see InfinityDijkstra
  * @see WeightedFlight
  */
-public class AirtimeWeighter implements Weighter {
-    public static final Weighter WEIGHTER = new AirtimeWeighter();
+public class AirtimeWeighter implements StaticWeighter {
+    public static final StaticWeighter WEIGHTER = new AirtimeWeighter();
 
     private AirtimeWeighter () {
     }
 
-    @Override public WeightedTicket minTicket (Airport from, Airport to) {
-        Ticket quickest = from.getQuickestTo(to);
+    @Override public WeightedTicket minTicket (FlightGraph graph, int edge, Ticket incident) {
+        Ticket quickest = graph.getQuickest(edge);
         return new WeightedTicket(quickest, quickest.getDuration().getMinutes());
     }
 
+    @Override public double weight (Ticket ticket) {
+        return ticket.getDuration().getMinutes();
+    }
+
+    @Override public Ticket edgeTicket (FlightGraph graph, int edge) {
+        return graph.getQuickest(edge);
+    }
+
+    @Override public double minWeightPerKm (FlightGraph graph) {
+        return graph.getMinAirtimePerKm();
+    }
+
+    @Override public LowerBound landmarkBound (Landmarks landmarks, Airport target) {
+        return landmarks.airtimeBound(target);
+    }
 }
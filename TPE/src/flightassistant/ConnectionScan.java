@@ -0,0 +1,117 @@
+package flightassistant;
+
+import utils.Day;
+import utils.TimeConstants;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Motor de busqueda por tiempo total basado en el Connection Scan Algorithm. En lugar de una
+ * cola de prioridades, para cada salida del origen recorre una vez las conexiones del
+ * {@link Timetable}, ordenadas por minuto de salida, a partir de esa salida. Una conexion sirve
+ * si al momento en que sale ya se llego a su aeropuerto de origen; como las conexiones se
+ * recorren en orden, cada aeropuerto queda con su llegada mas temprana.
+ * <p>
+ * Un recorrido hacia adelante da la llegada mas temprana para un unico momento de salida,
+ * por lo que se hace uno por cada ticket distinto del origen: en el peor caso es
+ * O(tickets del origen &times; conexiones), aunque cada recorrido corta apenas no puede
+ * mejorar al mejor camino. El minimo sobre todas las salidas en un unico barrido es un
+ * perfil, que calcula {@link ProfileSearch} hacia atras.
+ * <p>
+ * Los minutos se cuentan sin reiniciar la semana: al terminar el horario se vuelve a empezar
+ * sumando una semana, como el tiempo de espera de {@link utils.Moment#howMuchUntil}.
+ * @see InfinityDijkstra#minPathTotalTime
+ * @see ProfileSearch
+ */
+public class ConnectionScan {
+
+    /**
+     * Retorna una lista de {@link Ticket} con el trayecto de menor tiempo total entre dos
+     * aeropuertos, saliendo del origen en alguno de los dias dados. El resultado tiene el
+     * mismo tiempo total que {@link InfinityDijkstra#minPathTotalTime}.
+     * @param ctx estado de la busqueda, guarda las llegadas en minutos desde el lunes a las
+     * 00:00hs de la semana de salida
+     * @param graph foto del grafo sobre la que se busca
+     * @param origin <tt>Airport</tt> origen
+     * @param dest <tt>Airport</tt> destino
+     * @param days dias de salida posibles, todos si esta vacia
+     * @return lista vacia si no hay camino
+     */
+    public static List<Ticket> minPathTotalTime (SearchContext ctx, FlightGraph graph,
+        Airport origin, Airport dest, List<Day> days) {
+
+        Timetable timetable = graph.getTimetable();
+        Day[] departureDays = days.isEmpty() ? FlightGraph.allDays() : days.toArray(new Day[0]);
+
+        List<Ticket> bestPath = null;
+        double bestWeight = Double.POSITIVE_INFINITY;
+
+        int source = origin.getIndex();
+        for (int e = graph.firstEdge(source); e < graph.endEdge(source); e++) {
+            for (Day day : departureDays) {
+                Iterator<Ticket> ticketIter = graph.dayFlights(e, day);
+                Ticket prev = null;
+                while (ticketIter.hasNext()) {
+                    Ticket ticket = ticketIter.next();
+                    if (prev == null || !InfinityDijkstra.sameTicketFeatures(ticket, prev)) {
+                        prev = ticket;
+                        double weight = scan(ctx, graph, timetable, source, graph.getTarget(e),
+                            dest.getIndex(), ticket, bestWeight);
+                        if (weight < bestWeight) {
+                            bestWeight = weight;
+                            bestPath = InfinityDijkstra.buildList(ctx, dest);
+                        }
+                    }
+                }
+            }
+        }
+        return (bestPath != null) ? bestPath : new LinkedList<Ticket>();
+    }
+
+    /**
+     * Calcula la llegada mas temprana a cada aeropuerto tomando primero <i>first</i>. No se usan
+     * conexiones que salgan o lleguen al origen.
+     * @param adj aeropuerto al que llega <i>first</i>
+     * @param cutWeight tiempo total del mejor camino encontrado; se deja de buscar cuando ya
+     * no se lo puede mejorar
+     * @return el tiempo total hasta <i>target</i>, o infinito si no se llego o no mejora a
+     * <i>cutWeight</i>
+     */
+    private static double scan (SearchContext ctx, FlightGraph graph, Timetable timetable,
+        int source, int adj, int target, Ticket first, double cutWeight) {
+
+        int start = first.getDeparture().getMinuteOfWeek();
+        double latest = start + first.getDuration().getMinutes(); // llegada mas tardia registrada
+        ctx.reset(graph.size());
+        ctx.relax(adj, latest, first);
+
+        int size = timetable.size();
+        int week = 0;
+        for (int c = timetable.firstFrom(start); size > 0; c++) {
+            if (c == size) {
+                c = 0;
+                week += TimeConstants.MINUTES_PER_WEEK;
+            }
+            int departure = timetable.getDeparture(c) + week;
+
+            // Ninguna conexion posterior mejora al destino, o ya paso una semana desde la
+            // ultima llegada y todas las conexiones utiles fueron consideradas
+            if (departure >= ctx.getDistance(target) || departure - start >= cutWeight
+                || departure >= latest + TimeConstants.MINUTES_PER_WEEK)
+                break;
+
+            int from = timetable.getSource(c);
+            int to = timetable.getTarget(c);
+            if (from == source || to == source || ctx.getDistance(from) > departure)
+                continue;
+            double arrival = departure + timetable.getDuration(c);
+            if (arrival < ctx.getDistance(to)) {
+                ctx.relax(to, arrival, timetable.getTicket(c));
+                latest = Math.max(latest, arrival);
+            }
+        }
+        return ctx.getDistance(target) - start;
+    }
+}
@@ -0,0 +1,375 @@
+package flightassistant;
+
+import structures.IndexedMinHeap;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Jerarquia de contraccion sobre una foto del grafo para un {@link StaticWeighter}. Los
+ * aeropuertos se contraen de a uno, del menos importante al mas importante; al contraer un
+ * aeropuerto, cada camino de dos tramos que pasa por el y no tiene un camino alternativo igual
+ * de bueno (testigo) se reemplaza por un atajo que recuerda los dos tramos que une.
+ * <p>
+ * Un camino minimo siempre puede armarse subiendo en la jerarquia desde el origen y bajando
+ * hasta el destino, por lo que las consultas son una busqueda bidireccional que solo sigue
+ * tramos hacia aeropuertos mas importantes y visita muy pocos aeropuertos. Los atajos se
+ * desarman al final para devolver los tickets originales.
+ * <p>
+ * Como los pesos no dependen del dia, solo responde busquedas que pueden salir cualquier dia.
+ * La jerarquia no se actualiza: si cambia el grafo hay que construir otra.
+ */
+public class ContractionHierarchy {
+
+    /** Aeropuertos que procesa como maximo cada busqueda de testigos al contraer */
+    private static final int WITNESS_SETTLE_LIMIT = 100;
+
+    /** Idem al estimar la importancia, donde alcanza con una aproximacion */
+    private static final int IMPORTANCE_SETTLE_LIMIT = 10;
+
+    private final FlightGraph graph;
+
+    /** Tramos de cada aeropuerto hacia aeropuertos mas importantes */
+    private Arc[][] up;
+
+    /** Tramos que llegan a cada aeropuerto desde aeropuertos mas importantes */
+    private Arc[][] down;
+
+    /**
+     * Tramo con el que se llego a cada aeropuerto en la ultima consulta de cada hilo, hacia
+     * adelante y hacia atras. Cada hilo tiene los suyos para poder consultar en paralelo.
+     */
+    private final ThreadLocal<Arc[][]> parents = new ThreadLocal<Arc[][]>() {
+        @Override protected Arc[][] initialValue () {
+            return new Arc[2][graph.size()];
+        }
+    };
+
+    /**
+     * Construye la jerarquia del grafo para el criterio dado
+     * @param graph foto del grafo
+     * @param weighter elige el ticket de cada ruta y su peso
+     */
+    public ContractionHierarchy (FlightGraph graph, StaticWeighter weighter) {
+        this.graph = graph;
+        new Builder(graph, weighter).contract(this);
+    }
+
+    public FlightGraph getGraph () {
+        return graph;
+    }
+
+    /**
+     * Encuentra el camino minimo entre dos aeropuertos de la foto
+     * @param forward estado de la busqueda desde el origen, se reinicia al comenzar
+     * @param backward estado de la busqueda desde el destino, se reinicia al comenzar
+     * @param origin <tt>Airport</tt> origen
+     * @param dest <tt>Airport</tt> destino
+     * @return lista vacia si no hay camino
+     */
+    public List<Ticket> minPath (SearchContext forward, SearchContext backward,
+        Airport origin, Airport dest) {
+        Arc[][] threadParents = parents.get();
+        Arc[] forwardParent = threadParents[0];
+        Arc[] backwardParent = threadParents[1];
+        int source = origin.getIndex();
+        int target = dest.getIndex();
+        forward.reset(graph.size());
+        backward.reset(graph.size());
+        forward.relax(source, 0, null);
+        forward.getQueue().enqueue(source, 0);
+        backward.relax(target, 0, null);
+        backward.getQueue().enqueue(target, 0);
+
+        IndexedMinHeap forwardQueue = forward.getQueue();
+        IndexedMinHeap backwardQueue = backward.getQueue();
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+        while (true) {
+            // Una direccion termina cuando su tope no puede mejorar el mejor camino
+            boolean forwardDone = forwardQueue.isEmpty() || forwardQueue.minPriority() >= best;
+            boolean backwardDone = backwardQueue.isEmpty()
+                || backwardQueue.minPriority() >= best;
+            if (forwardDone && backwardDone)
+                break;
+
+            boolean isForward = backwardDone
+                || (!forwardDone && forwardQueue.minPriority() <= backwardQueue.minPriority());
+            SearchContext ctx = isForward ? forward : backward;
+            SearchContext other = isForward ? backward : forward;
+            int current = ctx.getQueue().dequeueId();
+            double minWeight = ctx.getDistance(current);
+            ctx.visit(current);
+
+            double weight = minWeight + other.getDistance(current);
+            if (weight < best) {
+                best = weight;
+                meeting = current;
+            }
+
+            Arc[] arcs = isForward ? up[current] : down[current];
+            Arc[] parent = isForward ? forwardParent : backwardParent;
+            for (Arc arc : arcs) {
+                int next = isForward ? arc.to : arc.from;
+                if (ctx.visited(next))
+                    continue;
+                relax(ctx, parent, next, minWeight + arc.weight, arc);
+            }
+        }
+        if (meeting < 0)
+            return new LinkedList<>(); // lista vacia si no enontró camino
+
+        LinkedList<Ticket> list = new LinkedList<>();
+        LinkedList<Arc> arcs = new LinkedList<>();
+        for (int node = meeting; node != source; node = forwardParent[node].from)
+            arcs.addFirst(forwardParent[node]);
+        for (int node = meeting; node != target; node = backwardParent[node].to)
+            arcs.addLast(backwardParent[node]);
+        for (Arc arc : arcs)
+            arc.unpack(list);
+        return list;
+    }
+
+    private static void relax (SearchContext ctx, Arc[] parent, int node, double weight,
+        Arc arc) {
+        if (weight < ctx.getDistance(node)) {
+            IndexedMinHeap pq = ctx.getQueue();
+            if (ctx.isReached(node))
+                pq.decreasePriority(node, weight);
+            else
+                pq.enqueue(node, weight);
+            ctx.relax(node, weight, null);
+            parent[node] = arc;
+        }
+    }
+
+    /**
+     * Tramo entre dos aeropuertos: un ticket o un atajo que une otros dos tramos
+     */
+    private static class Arc {
+        private int from;
+        private int to;
+        private double weight;
+        private Ticket ticket;
+        private Arc first;
+        private Arc second;
+
+        private Arc (int from, int to, double weight, Ticket ticket) {
+            this.from = from;
+            this.to = to;
+            this.weight = weight;
+            this.ticket = ticket;
+        }
+
+        private Arc (Arc first, Arc second) {
+            this(first.from, second.to, first.weight + second.weight, null);
+            this.first = first;
+            this.second = second;
+        }
+
+        /**
+         * Agrega al final de la lista los tickets del tramo
+         */
+        private void unpack (List<Ticket> list) {
+            if (ticket != null) {
+                list.add(ticket);
+            } else {
+                first.unpack(list);
+                second.unpack(list);
+            }
+        }
+    }
+
+    /**
+     * Estado de la contraccion: los tramos entre aeropuertos todavia no contraidos
+     */
+    private static class Builder {
+        private int n;
+        private List<List<Arc>> out;
+        private List<List<Arc>> in;
+        private boolean[] contracted;
+        private int[] contractedNeighbours;
+        private SearchContext witness;
+
+        /** Marca los destinos de la busqueda de testigos actual */
+        private int[] targetMark;
+        private int mark;
+
+        /** Tramos hacia y desde aeropuertos mas importantes, a medida que se contraen */
+        private List<List<Arc>> up;
+        private List<List<Arc>> down;
+
+        private Builder (FlightGraph graph, StaticWeighter weighter) {
+            n = graph.size();
+            out = newLists(n);
+            in = newLists(n);
+            up = newLists(n);
+            down = newLists(n);
+            contracted = new boolean[n];
+            contractedNeighbours = new int[n];
+            witness = new SearchContext(n);
+            targetMark = new int[n];
+            for (int v = 0; v < n; v++) {
+                for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+                    Ticket ticket = weighter.edgeTicket(graph, e);
+                    if (ticket != null)
+                        addArc(new Arc(v, graph.getTarget(e), weighter.weight(ticket), ticket));
+                }
+            }
+        }
+
+        private static List<List<Arc>> newLists (int n) {
+            List<List<Arc>> lists = new ArrayList<>(n);
+            for (int v = 0; v < n; v++)
+                lists.add(new ArrayList<Arc>());
+            return lists;
+        }
+
+        private void addArc (Arc arc) {
+            out.get(arc.from).add(arc);
+            in.get(arc.to).add(arc);
+        }
+
+        private void contract (ContractionHierarchy hierarchy) {
+            IndexedMinHeap order = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++)
+                order.enqueue(v, importance(v));
+
+            while (!order.isEmpty()) {
+                int v = order.dequeueId();
+                // La importancia cambia al contraer vecinos: se recalcula antes de contraer
+                double priority = importance(v);
+                if (!order.isEmpty() && priority > order.minPriority()) {
+                    order.enqueue(v, priority);
+                    continue;
+                }
+                contractNode(v);
+            }
+
+            hierarchy.up = toArrays(up);
+            hierarchy.down = toArrays(down);
+        }
+
+        private static Arc[][] toArrays (List<List<Arc>> lists) {
+            Arc[][] arrays = new Arc[lists.size()][];
+            for (int v = 0; v < arrays.length; v++)
+                arrays[v] = lists.get(v).toArray(new Arc[lists.get(v).size()]);
+            return arrays;
+        }
+
+        /**
+         * Diferencia entre los atajos que agregaria contraer el aeropuerto y los tramos que
+         * quita, mas la cantidad de vecinos ya contraidos para repartir la contraccion
+         */
+        private double importance (int v) {
+            int shortcuts = shortcuts(v, false);
+            return shortcuts - out.get(v).size() - in.get(v).size() + contractedNeighbours[v];
+        }
+
+        private void contractNode (int v) {
+            shortcuts(v, true);
+            contracted[v] = true;
+            for (Arc arc : out.get(v)) {
+                in.get(arc.to).remove(arc);
+                contractedNeighbours[arc.to]++;
+                up.get(v).add(arc);
+            }
+            for (Arc arc : in.get(v)) {
+                out.get(arc.from).remove(arc);
+                contractedNeighbours[arc.from]++;
+                down.get(v).add(arc);
+            }
+        }
+
+        /**
+         * Cuenta, y si <i>add</i> es verdadero agrega, los atajos necesarios para contraer el
+         * aeropuerto
+         */
+        private int shortcuts (int v, boolean add) {
+            List<Arc> outArcs = out.get(v);
+            if (outArcs.isEmpty())
+                return 0;
+            double maxOut = 0;
+            mark++;
+            for (Arc arc : outArcs) {
+                maxOut = Math.max(maxOut, arc.weight);
+                targetMark[arc.to] = mark;
+            }
+
+            int count = 0;
+            for (Arc inArc : new ArrayList<>(in.get(v))) {
+                int u = inArc.from;
+                witnessSearch(u, v, inArc.weight + maxOut, outArcs.size(),
+                    add ? WITNESS_SETTLE_LIMIT : IMPORTANCE_SETTLE_LIMIT);
+                for (Arc outArc : new ArrayList<>(outArcs)) {
+                    int w = outArc.to;
+                    if (w == u)
+                        continue;
+                    double weight = inArc.weight + outArc.weight;
+                    if (witness.getDistance(w) <= weight)
+                        continue;
+                    count++;
+                    if (add)
+                        addShortcut(new Arc(inArc, outArc));
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Agrega el atajo, reemplazando al tramo que une los mismos aeropuertos si lo hay
+         */
+        private void addShortcut (Arc shortcut) {
+            List<Arc> arcs = out.get(shortcut.from);
+            for (int i = 0; i < arcs.size(); i++) {
+                Arc arc = arcs.get(i);
+                if (arc.to == shortcut.to) {
+                    arcs.remove(i);
+                    in.get(arc.to).remove(arc);
+                    break;
+                }
+            }
+            addArc(shortcut);
+        }
+
+        /**
+         * Caminos minimos desde <i>source</i> sin pasar por <i>skip</i> ni por aeropuertos
+         * contraidos, hasta procesar los <i>targets</i> destinos marcados, superar
+         * <i>limit</i> o procesar <i>settleLimit</i> aeropuertos. Los pesos no alcanzados
+         * quedan infinitos, lo que a lo sumo agrega atajos innecesarios.
+         */
+        private void witnessSearch (int source, int skip, double limit, int targets,
+            int settleLimit) {
+            witness.reset(n);
+            witness.relax(source, 0, null);
+            IndexedMinHeap pq = witness.getQueue();
+            pq.enqueue(source, 0);
+            int settled = 0;
+            int settledTargets = 0;
+            while (!pq.isEmpty() && settled < settleLimit && settledTargets < targets) {
+                if (pq.minPriority() > limit)
+                    break;
+                int current = pq.dequeueId();
+                double minWeight = witness.getDistance(current);
+                witness.visit(current);
+                settled++;
+                if (targetMark[current] == mark)
+                    settledTargets++;
+                for (Arc arc : out.get(current)) {
+                    int next = arc.to;
+                    if (next == skip || witness.visited(next))
+                        continue;
+                    double weight = minWeight + arc.weight;
+                    if (weight < witness.getDistance(next)) {
+                        if (witness.isReached(next))
+                            pq.decreasePriority(next, weight);
+                        else
+                            pq.enqueue(next, weight);
+                        witness.relax(next, weight, null);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package flightassistant;
+
+import utils.Day;
+import utils.TimeConstants;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Vuelos de una ruta en un sentido ordenados por minuto de salida dentro de la semana, en
+ * arreglos paralelos. Los vuelos de cada dia se recorren con {@link #dayFlights(Day)} y el
+ * tiempo total se evalua con la {@link TravelTimeFunction} de la tabla.
+ * <p>
+ * Es una foto inmutable de los vuelos: la {@link Route} la construye la primera vez que se
+ * pide y la descarta cuando se agregan o eliminan vuelos, por lo que las fotos del grafo
+ * comparten la tabla mientras la ruta no cambie.
+ * @see TravelTimeFunction
+ * @see FlightGraph#getDepartures(int)
+ */
+public class DepartureTable {
+
+    private static final int DAY = TimeConstants.MINUTES_PER_DAY;
+
+    private final int[] departures;
+    private final int[] durations;
+    private final Ticket[] tickets;
+
+    /** Vuelos no dominados para el tiempo total, null si todavia no se pidieron */
+    private volatile TravelTimeFunction travelTime;
+
+    /**
+     * @param tickets vuelos ordenados por minuto de salida dentro de la semana
+     */
+    DepartureTable (Ticket[] tickets) {
+        this.tickets = tickets;
+        departures = new int[tickets.length];
+        durations = new int[tickets.length];
+        for (int i = 0; i < tickets.length; i++) {
+            departures[i] = tickets[i].getDeparture().getMinuteOfWeek();
+            durations[i] = tickets[i].getDuration().getMinutes();
+        }
+    }
+
+    public int size () {
+        return tickets.length;
+    }
+
+    /**
+     * Posicion del primer vuelo que sale en el minuto dado o despues, sin volver al principio
+     */
+    private int lowerBound (int minuteOfWeek) {
+        int low = 0;
+        int high = departures.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures[mid] < minuteOfWeek)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Minuto de la semana en el que sale el vuelo <i>i</i>
+     */
+    public int getDeparture (int i) {
+        return departures[i];
+    }
+
+    /**
+     * Duracion en minutos del vuelo <i>i</i>
+     */
+    public int getDuration (int i) {
+        return durations[i];
+    }
+
+    public Ticket getTicket (int i) {
+        return tickets[i];
+    }
+
+    /**
+     * Devuelve los vuelos que salen el dia dado, ordenados por horario de salida
+     */
+    public Iterator<Ticket> dayFlights (Day day) {
+        final int start = Day.LU.getDaysDifference(day) * DAY;
+        final int end = start + DAY;
+        return new Iterator<Ticket>() {
+            private int i = lowerBound(start);
+
+            @Override public boolean hasNext () {
+                return i < departures.length && departures[i] < end;
+            }
+
+            @Override public Ticket next () {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return tickets[i++];
+            }
+        };
+    }
+
+    /**
+     * Devuelve la funcion de tiempo de viaje de los vuelos de la tabla, armandola la primera
+     * vez que se pide
+     * @see TravelTimeFunction
+     */
+    public TravelTimeFunction getTravelTime () {
+        TravelTimeFunction function = travelTime;
+        if (function == null) {
+            function = new TravelTimeFunction(Arrays.asList(tickets));
+            travelTime = function;
+        }
+        return function;
+    }
+}
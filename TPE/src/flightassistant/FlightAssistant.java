@@ -6,19 +6,117 @@ import utils.Day;
 import utils.Moment;
 import utils.Time;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class FlightAssistant {
 
     private static final int AIRPORTS_SIZE = 1000;
     private static final int FLIGHTS_SIZE = 6000;
+    private static final int PARETO_BUCKET_SIZE = 32;
+    private static final int BATCH_CHUNK_SIZE = 8;
+    private static final long BUILDER_KEEP_ALIVE_SECONDS = 10;
+
+    /** Hilos de las construcciones en segundo plano, que no impiden terminar el programa */
+    private static final ThreadFactory BUILDER_THREADS = new ThreadFactory() {
+        @Override public Thread newThread (Runnable r) {
+            Thread thread = new Thread(r, "flightassistant-builder");
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
     
     /** Coleccion de Aeropuertos */
-    private SimpleMap<String, Airport> airports;
+    private AVLHashMap<String, Airport> airports;
  
     /** Coleccion de vuelos */
-    private SimpleMap<FlightId, Flight> flights;
+    private AVLHashMap<FlightId, Flight> flights;
+
+    /**
+     * Aeropuertos indexados por su id denso, con null en los lugares de los eliminados. El id
+     * de un aeropuerto no cambia mientras existe, para que las fotos anteriores lo sigan usando.
+     */
+    private List<Airport> airportsByIndex;
+
+    /** Ids densos libres, que se reutilizan al insertar aeropuertos */
+    private List<Integer> freeIndexes;
+
+    /**
+     * Separa las modificaciones de la construccion de las fotos: las modificaciones y la
+     * configuracion toman el candado de escritura, armar una foto toma el de lectura. Las
+     * busquedas corren sobre una foto sin tomar ningun candado.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Estado reutilizable de las busquedas de caminos de cada hilo */
+    private final ThreadLocal<SearchContext> context = new ThreadLocal<SearchContext>() {
+        @Override protected SearchContext initialValue () {
+            return new SearchContext(AIRPORTS_SIZE);
+        }
+    };
+
+    /** Estado de la busqueda desde el destino en la busqueda bidireccional de cada hilo */
+    private final ThreadLocal<SearchContext> reverseContext = new ThreadLocal<SearchContext>() {
+        @Override protected SearchContext initialValue () {
+            return new SearchContext(AIRPORTS_SIZE);
+        }
+    };
+
+    /**
+     * Ultima foto sobre la que se buscan caminos, null si hay que armar una nueva. Se arma con
+     * el candado de lectura, por lo que se accede sincronizando.
+     * @see FlightSnapshot
+     */
+    private volatile FlightSnapshot current;
+
+    /** Numero de la ultima foto armada */
+    private long snapshotVersion;
+
+    /** Si las busquedas usan A* con cotas geograficas */
+    private volatile boolean aStar;
+
+    /** Si las busquedas por precio y tiempo de vuelo avanzan desde ambos extremos */
+    private volatile boolean bidirectional;
+
+    /** Si las busquedas por precio y tiempo de vuelo sin dias usan jerarquias de contraccion */
+    private volatile boolean contraction;
+
+    /** Ultimas jerarquias pedidas para cada criterio, null si no se pidio ninguna */
+    private volatile HierarchyBuild priceHierarchy;
+    private volatile HierarchyBuild airtimeHierarchy;
+
+    /** Algoritmo de las busquedas por tiempo total */
+    private volatile TotalTimeEngine totalTimeEngine = TotalTimeEngine.PROFILE;
+
+    /** Cantidad de landmarks que usa A*, 0 si solo se usan cotas geograficas */
+    private volatile int landmarkCount;
+
+    /**
+     * Cantidad de modificaciones que pueden acortar caminos o cambiar los aeropuertos. Los
+     * landmarks calculados con otra version no sirven.
+     */
+    private int landmarksVersion;
+
+    /** Ultimo calculo de landmarks pedido, null si no se pidio ninguno */
+    private volatile LandmarksBuild landmarksBuild;
+
+    /**
+     * Corre de a una las construcciones de landmarks y de jerarquias. Cuando se pide una mas
+     * nueva, la anterior del mismo tipo se saca de la cola si todavia no empezo, por lo que
+     * nunca se acumulan construcciones que se van a descartar. El hilo termina si no hay
+     * construcciones pendientes.
+     */
+    private final ThreadPoolExecutor builder;
 
     /**
      * Construye un nuevo FlightAssistant
@@ -26,6 +124,11 @@ public class FlightAssistant {
     public FlightAssistant () {
         airports = new AVLHashMap<>(AIRPORTS_SIZE);
         flights = new AVLHashMap<>(FLIGHTS_SIZE);
+        airportsByIndex = new ArrayList<>(AIRPORTS_SIZE);
+        freeIndexes = new ArrayList<>();
+        builder = new ThreadPoolExecutor(1, 1, BUILDER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), BUILDER_THREADS);
+        builder.allowCoreThreadTimeOut(true);
     }
 
     
@@ -36,8 +139,24 @@ public class FlightAssistant {
      * @param longitude la longitud del aeropuerto
      */
     public void insertAirport (String id, double latitude, double longitude) {
-        if (!airports.containsKey(id))
-            airports.put(id, new Airport(id, latitude, longitude));
+        lock.writeLock().lock();
+        try {
+            if (!airports.containsKey(id)) {
+                Airport airport = new Airport(id, latitude, longitude);
+                if (freeIndexes.isEmpty()) {
+                    airport.setIndex(airportsByIndex.size());
+                    airportsByIndex.add(airport);
+                } else {
+                    airport.setIndex(freeIndexes.remove(freeIndexes.size() - 1));
+                    airportsByIndex.set(airport.getIndex(), airport);
+                }
+                airports.put(id, airport);
+                current = null;
+                landmarksVersion++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     
@@ -58,22 +177,29 @@ public class FlightAssistant {
      */
     public void insertFlight (String airline, int number, double price, List<Moment> departures,
         Time duration, String origin, String destination) {
-
-        Airport origAir = airports.get(origin);
-        Airport destAir = airports.get(destination);
-        if (origAir == null || destAir == null) {
-            return; 
-        }
-        // Crea la ruta en caso de que todavía no exista
-        if (!origAir.routeExistsTo(destAir)) {
-            Route r = new Route(origAir, destAir);
-            origAir.addRoute(destAir, r);
-            destAir.addRoute(origAir, r);
-        }
-        Flight newFlight = new Flight(airline, number, price, departures, duration, origAir, destAir);
-        if(!flights.containsKey(newFlight.getId())){
-        	flights.put(newFlight.getId(), newFlight);
-        	origAir.addFlight(newFlight);
+        lock.writeLock().lock();
+        try {
+            Airport origAir = airports.get(origin);
+            Airport destAir = airports.get(destination);
+            if (origAir == null || destAir == null) {
+                return; 
+            }
+            // Crea la ruta en caso de que todavía no exista
+            if (!origAir.routeExistsTo(destAir)) {
+                Route r = new Route(origAir, destAir);
+                origAir.addRoute(destAir, r);
+                destAir.addRoute(origAir, r);
+            }
+            Flight newFlight = new Flight(airline, number, price, departures, duration, origAir,
+                destAir);
+            if(!flights.containsKey(newFlight.getId())){
+                flights.put(newFlight.getId(), newFlight);
+                origAir.addFlight(newFlight);
+                current = null;
+                landmarksVersion++;
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -82,20 +208,26 @@ public class FlightAssistant {
      * 	Si la ruta esta vacia, la elimina.
      */
     public void removeFlight (String airline, int number) {
-        FlightId flightId = new FlightId(airline, number);
-        Flight flight = flights.get(flightId);
-        if (flight != null) {
-            Airport origAir = flight.getOrigin();
-            Airport destAir = flight.getDestination();
-            origAir.removeFlight(flight);
-            flights.remove(flightId);
-
-            // Borra la ruta entre los aeropuertos si no quedan mas vuelos entre ellos.
-            Route flightRoute = origAir.getRouteTo(destAir);
-            if (!flightRoute.hasFlights()) {
-                origAir.removeRouteTo(destAir);
-                destAir.removeRouteTo(origAir);
+        lock.writeLock().lock();
+        try {
+            FlightId flightId = new FlightId(airline, number);
+            Flight flight = flights.get(flightId);
+            if (flight != null) {
+                Airport origAir = flight.getOrigin();
+                Airport destAir = flight.getDestination();
+                origAir.removeFlight(flight);
+                flights.remove(flightId);
+                current = null;
+
+                // Borra la ruta entre los aeropuertos si no quedan mas vuelos entre ellos.
+                Route flightRoute = origAir.getRouteTo(destAir);
+                if (!flightRoute.hasFlights()) {
+                    origAir.removeRouteTo(destAir);
+                    destAir.removeRouteTo(origAir);
+                }
             }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -104,19 +236,46 @@ public class FlightAssistant {
      * @param id - El ID del aeropuerto a eliminar
      */
     public void removeAirport (String id) {
-        Airport airport = airports.get(id);
-        if (airport != null) {
-            removeRoutesTo(airport);
-            airports.remove(id);
+        lock.writeLock().lock();
+        try {
+            Airport airport = airports.get(id);
+            if (airport != null) {
+                removeRoutesTo(airport);
+                airports.remove(id);
+                removeIndex(airport);
+                current = null;
+                landmarksVersion++;
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
+    /**
+     * Libera el id denso de un aeropuerto eliminado para reutilizarlo. Los demas aeropuertos
+     * conservan el suyo, ya que las fotos anteriores los siguen usando.
+     */
+    private void removeIndex (Airport airport) {
+        int index = airport.getIndex();
+        airportsByIndex.set(index, null);
+        freeIndexes.add(index);
+    }
+
     /**
      * Elimina todos los aeropuertos del universo
      */
     public void removeAllAirports () {
-        airports.clear();
-        flights.clear();
+        lock.writeLock().lock();
+        try {
+            airports.clear();
+            flights.clear();
+            airportsByIndex.clear();
+            freeIndexes.clear();
+            current = null;
+            landmarksVersion++;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -124,11 +283,17 @@ public class FlightAssistant {
      * y las rutas correspondientes
      */
     public void removeAllFlights () {
-        flights.clear();
-        Iterator<Airport> iter = airports.valueIterator();
-        while (iter.hasNext()) {
-            Airport airport = iter.next();
-            airport.removeAllRoutes();
+        lock.writeLock().lock();
+        try {
+            flights.clear();
+            Iterator<Airport> iter = airports.valueIterator();
+            while (iter.hasNext()) {
+                Airport airport = iter.next();
+                airport.removeAllRoutes();
+            }
+            current = null;
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -136,7 +301,7 @@ public class FlightAssistant {
      * Devuelve una lista de Tickets con el camino mas rapido (menor tiempo total)
      */
     public List<Ticket> findQuickestPath (String orig, String dest, List<Day> days) {
-        return findPath(orig, dest, days, AirtimeWeighter.WEIGHTER, new OriginAirtimeWeighter(days));
+        return snapshot().findQuickestPath(orig, dest, days);
     }
 
     /**
@@ -149,7 +314,7 @@ public class FlightAssistant {
      * @see Ticket
      */
     public List<Ticket> findCheapestPath (String orig, String dest, List<Day> days) {
-        return findPath(orig, dest, days, PriceWeighter.WEIGHTER, new OriginPriceWeighter(days));
+        return snapshot().findCheapestPath(orig, dest, days);
     }
 
     /**
@@ -162,28 +327,510 @@ public class FlightAssistant {
      * @see Ticket
 	*/
     public List<Ticket> findShortestTotalTimeRoute(String orig, String dest, List<Day> days) {
-    	Airport origin = airports.get(orig);
-    	Airport destination = airports.get(dest);
-    	if(origin == null || destination == null || origin.equals(destination))
-    		return null;
-    	
-        return InfinityDijkstra.minPathTotalTime(this, airports.get(orig), airports.get(dest), days);
+        return snapshot().findShortestTotalTimeRoute(orig, dest, days);
     }
 
-    
-    private List<Ticket> findPath (String orig, String dest, List<Day> days, Weighter weighter,
-        Weighter originWeighter) {
-        Airport origin = airports.get(orig);
-        Airport destination = airports.get(dest);
+    List<Ticket> findShortestTotalTimeRoute (FlightSnapshot s, String orig, String dest,
+        List<Day> days) {
+        Airport origin = s.getAirport(orig);
+        Airport destination = s.getAirport(dest);
+        if (origin == null || destination == null || origin.equals(destination))
+            return null;
+        return minPathTotalTime(s, context.get(), origin, destination, days);
+    }
+
+    private List<Ticket> minPathTotalTime (FlightSnapshot s, SearchContext ctx, Airport origin,
+        Airport destination, List<Day> days) {
+        FlightGraph g = s.getGraph();
+        if (totalTimeEngine == TotalTimeEngine.PROFILE)
+            return ProfileSearch.profile(g, origin, destination).bestRoute(days);
+        if (totalTimeEngine == TotalTimeEngine.CONNECTION_SCAN)
+            return ConnectionScan.minPathTotalTime(ctx, g, origin, destination, days);
+        LowerBound bound = lowerBound(s, destination, AirtimeWeighter.WEIGHTER);
+        return InfinityDijkstra.minPathTotalTime(ctx, g, origin, destination, days, bound);
+    }
+
+    /**
+     * Devuelve el perfil de viaje entre dos aeropuertos: para cada salida del origen durante
+     * la semana, el tiempo total hasta el destino
+     * @param orig - ID del aeropuerto origen
+     * @param dest - ID del aeropuerto destino
+     * @see TotalTimeProfile
+     */
+    public TotalTimeProfile findTotalTimeProfile (String orig, String dest) {
+        return snapshot().findTotalTimeProfile(orig, dest);
+    }
+
+    TotalTimeProfile findTotalTimeProfile (FlightSnapshot s, String orig, String dest) {
+        Airport origin = s.getAirport(orig);
+        Airport destination = s.getAirport(dest);
+        if (origin == null || destination == null || origin.equals(destination))
+            return null;
+        return ProfileSearch.profile(s.getGraph(), origin, destination);
+    }
+
+    /**
+     * Devuelve hasta <i>k</i> caminos sin ciclos entre dos aeropuertos ordenados por tiempo de
+     * vuelo, sin modificar los vuelos cargados
+     * @param orig - ID del aeropuerto origen
+     * @param dest - ID del aeropuerto destino
+     * @param days - lista de los posibles dias de salida
+     * @param k - cantidad de caminos pedidos
+     * @see KShortestPaths
+     */
+    public List<List<Ticket>> findQuickestPaths (String orig, String dest, List<Day> days, int k) {
+        return snapshot().findQuickestPaths(orig, dest, days, k);
+    }
+
+    /**
+     * Devuelve hasta <i>k</i> caminos sin ciclos entre dos aeropuertos ordenados por precio,
+     * sin modificar los vuelos cargados
+     * @param orig - ID del aeropuerto origen
+     * @param dest - ID del aeropuerto destino
+     * @param days - lista de los posibles dias de salida
+     * @param k - cantidad de caminos pedidos
+     * @see KShortestPaths
+     */
+    public List<List<Ticket>> findCheapestPaths (String orig, String dest, List<Day> days, int k) {
+        return snapshot().findCheapestPaths(orig, dest, days, k);
+    }
+
+    /**
+     * Devuelve el arbol de caminos mas baratos desde un aeropuerto hacia todos los demas. El
+     * arbol se guarda y se reutiliza, tambien en {@link #findCheapestPath}, hasta que se
+     * modifiquen los aeropuertos o los vuelos.
+     * @param orig - ID del aeropuerto origen
+     * @param days - lista de los posibles dias de salida
+     * @see ShortestPathTree
+     */
+    public ShortestPathTree findCheapestTree (String orig, List<Day> days) {
+        return snapshot().findCheapestTree(orig, days);
+    }
+
+    /**
+     * Devuelve el arbol de caminos de menor tiempo de vuelo desde un aeropuerto hacia todos
+     * los demas. El arbol se guarda y se reutiliza, tambien en {@link #findQuickestPath},
+     * hasta que se modifiquen los aeropuertos o los vuelos.
+     * @param orig - ID del aeropuerto origen
+     * @param days - lista de los posibles dias de salida
+     * @see ShortestPathTree
+     */
+    public ShortestPathTree findQuickestTree (String orig, List<Day> days) {
+        return snapshot().findQuickestTree(orig, days);
+    }
+
+    /**
+     * Devuelve la matriz de precios minimos entre cada origen y cada destino, resolviendo los
+     * origenes en paralelo
+     * @param origs - IDs de los aeropuertos origen, filas de la matriz
+     * @param dests - IDs de los aeropuertos destino, columnas de la matriz
+     * @param days - lista de los posibles dias de salida
+     * @param itineraries - si se guardan los caminos ademas de los precios
+     * @return null si algun aeropuerto no existe
+     * @see RouteMatrix
+     */
+    public RouteMatrix findCheapestMatrix (List<String> origs, List<String> dests,
+        List<Day> days, boolean itineraries) {
+        return snapshot().findCheapestMatrix(origs, dests, days, itineraries);
+    }
+
+    /**
+     * Devuelve la matriz de tiempos de vuelo minimos entre cada origen y cada destino,
+     * resolviendo los origenes en paralelo
+     * @param origs - IDs de los aeropuertos origen, filas de la matriz
+     * @param dests - IDs de los aeropuertos destino, columnas de la matriz
+     * @param days - lista de los posibles dias de salida
+     * @param itineraries - si se guardan los caminos ademas de los tiempos
+     * @return null si algun aeropuerto no existe
+     * @see RouteMatrix
+     */
+    public RouteMatrix findQuickestMatrix (List<String> origs, List<String> dests,
+        List<Day> days, boolean itineraries) {
+        return snapshot().findQuickestMatrix(origs, dests, days, itineraries);
+    }
+
+    RouteMatrix findMatrix (FlightSnapshot s, List<String> origs, List<String> dests,
+        List<Day> days, StaticWeighter weighter, StaticWeighter originWeighter,
+        boolean itineraries) {
+        List<Airport> origins = lookupAirports(s, origs);
+        List<Airport> destinations = lookupAirports(s, dests);
+        if (origins == null || destinations == null)
+            return null;
+        return RouteMatrix.compute(s.getGraph(), origins, destinations, weighter,
+            days.isEmpty() ? null : originWeighter, itineraries,
+            Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Devuelve los aeropuertos con los ids dados, o null si alguno no existe
+     */
+    private List<Airport> lookupAirports (FlightSnapshot s, List<String> ids) {
+        List<Airport> list = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Airport airport = s.getAirport(id);
+            if (airport == null)
+                return null;
+            list.add(airport);
+        }
+        return list;
+    }
+
+    ShortestPathTree findTree (FlightSnapshot s, String orig, List<Day> days,
+        StaticWeighter weighter, StaticWeighter originWeighter) {
+        Airport origin = s.getAirport(orig);
+        if (origin == null)
+            return null;
+        ShortestPathTree tree = s.cachedTree(origin, weighter, days);
+        if (tree == null) {
+            // Dos hilos pueden calcular el mismo arbol; se guarda el ultimo
+            tree = InfinityDijkstra.oneToAll(context.get(), s.getGraph(), origin, weighter,
+                days.isEmpty() ? null : originWeighter);
+            s.cacheTree(origin, weighter, days, tree);
+        }
+        return tree;
+    }
+
+    List<List<Ticket>> findPaths (FlightSnapshot s, String orig, String dest, List<Day> days,
+        StaticWeighter weighter, StaticWeighter originWeighter, int k) {
+        Airport origin = s.getAirport(orig);
+        Airport destination = s.getAirport(dest);
+        if (origin == null || destination == null || origin.equals(destination))
+            return null;
+        return KShortestPaths.find(context.get(), s.getGraph(), origin, destination, weighter,
+            days.isEmpty() ? null : originWeighter, k);
+    }
+
+    /**
+     * Devuelve los caminos entre dos aeropuertos que no son dominados en precio, tiempo de
+     * vuelo y tiempo total
+     * @param orig - ID del aeropuerto origen
+     * @param dest - ID del aeropuerto destino
+     * @param days - lista de los posibles dias de salida
+     * @see ParetoSearch
+     */
+    public List<List<Ticket>> findParetoRoutes (String orig, String dest, List<Day> days) {
+        List<StaticWeighter> criteria = new ArrayList<>();
+        criteria.add(PriceWeighter.WEIGHTER);
+        criteria.add(AirtimeWeighter.WEIGHTER);
+        return findParetoRoutes(orig, dest, days, criteria, true);
+    }
+
+    /**
+     * Devuelve los caminos entre dos aeropuertos que no son dominados segun los criterios dados
+     * @param orig - ID del aeropuerto origen
+     * @param dest - ID del aeropuerto destino
+     * @param days - lista de los posibles dias de salida
+     * @param criteria - weighters cuyo peso se minimiza
+     * @param totalTime - si tambien se minimiza el tiempo total
+     */
+    public List<List<Ticket>> findParetoRoutes (String orig, String dest, List<Day> days,
+        List<StaticWeighter> criteria, boolean totalTime) {
+        return snapshot().findParetoRoutes(orig, dest, days, criteria, totalTime);
+    }
+
+    List<List<Ticket>> findParetoRoutes (FlightSnapshot s, String orig, String dest,
+        List<Day> days, List<StaticWeighter> criteria, boolean totalTime) {
+        Airport origin = s.getAirport(orig);
+        Airport destination = s.getAirport(dest);
+        if (origin == null || destination == null || origin.equals(destination))
+            return null;
+        return ParetoSearch.search(s.getGraph(), origin, destination, days, criteria, totalTime,
+            PARETO_BUCKET_SIZE);
+    }
+
+    /**
+     * Devuelve el frente de Pareto de caminos entre dos aeropuertos segun cantidad de vuelos y
+     * tiempo total: para cada cantidad de vuelos, el camino de menor tiempo total si es mas
+     * rapido que todos los que usan menos vuelos.
+     * @param orig - ID del aeropuerto origen
+     * @param dest - ID del aeropuerto destino
+     * @param days - lista de los posibles dias de salida
+     * @return caminos ordenados por cantidad de vuelos creciente
+     * @see RoundRouter
+     */
+    public List<List<Ticket>> findRoutesByTransfers (String orig, String dest, List<Day> days) {
+        return findRoutesByTransfers(orig, dest, days, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Igual a {@link #findRoutesByTransfers(String, String, List)} pero considerando solo
+     * caminos de a lo sumo <i>maxFlights</i> vuelos
+     */
+    public List<List<Ticket>> findRoutesByTransfers (String orig, String dest, List<Day> days,
+        int maxFlights) {
+        return snapshot().findRoutesByTransfers(orig, dest, days, maxFlights);
+    }
+
+    List<List<Ticket>> findRoutesByTransfers (FlightSnapshot s, String orig, String dest,
+        List<Day> days, int maxFlights) {
+        Airport origin = s.getAirport(orig);
+        Airport destination = s.getAirport(dest);
+        if (origin == null || destination == null || origin.equals(destination))
+            return null;
+        return RoundRouter.paretoRoutes(s.getGraph(), origin, destination, days, maxFlights);
+    }
+
+    List<Ticket> findPath (FlightSnapshot s, String orig, String dest, List<Day> days,
+        StaticWeighter weighter, StaticWeighter originWeighter) {
+        Airport origin = s.getAirport(orig);
+        Airport destination = s.getAirport(dest);
         if (origin == null || destination == null || origin.equals(destination)) {
             return null;
         }
-        refreshAirportsNodeProperties();
+        ShortestPathTree tree = s.cachedTree(origin, weighter, days);
+        if (tree != null)
+            return tree.pathTo(destination);
+        return minPath(s, context.get(), reverseContext.get(), origin, destination, days,
+            weighter, originWeighter);
+    }
+
+    private List<Ticket> minPath (FlightSnapshot s, SearchContext ctx, SearchContext reverse,
+        Airport origin, Airport destination, List<Day> days, StaticWeighter weighter,
+        StaticWeighter originWeighter) {
+        FlightGraph g = s.getGraph();
+        if (contraction && days.isEmpty()) {
+            ContractionHierarchy hierarchy = getHierarchy(s, weighter);
+            if (hierarchy != null)
+                return hierarchy.minPath(ctx, reverse, origin, destination);
+        }
+        if (bidirectional) {
+            return InfinityDijkstra.minPathBidirectional(ctx, reverse, g, origin, destination,
+                weighter, days.isEmpty() ? null : originWeighter);
+        }
+        LowerBound bound = lowerBound(s, destination, weighter);
         if (days.isEmpty()) {
-            return InfinityDijkstra.minPath(airports, origin, destination, weighter);
+            return InfinityDijkstra.minPath(ctx, g, origin, destination, weighter, null, bound);
+        }
+        return InfinityDijkstra.minPath(ctx, g, origin, destination, weighter, originWeighter,
+            bound);
+    }
+
+    /**
+     * Resuelve un pedido de camino sobre una foto con los contextos dados
+     * @return null si alguno de los aeropuertos no existe o son el mismo
+     */
+    private List<Ticket> route (FlightSnapshot s, SearchContext ctx, SearchContext reverse,
+        RouteQuery query) {
+        Airport origin = s.getAirport(query.getOrigin());
+        Airport destination = s.getAirport(query.getDestination());
+        if (origin == null || destination == null || origin.equals(destination))
+            return null;
+        List<Day> days = new ArrayList<>(query.getDays());   // las busquedas pueden agregar dias
+        switch (query.getPriority()) {
+            case FLIGHT_TIME:
+                return minPath(s, ctx, reverse, origin, destination, days,
+                    AirtimeWeighter.WEIGHTER, new OriginAirtimeWeighter(days));
+            case PRICE:
+                return minPath(s, ctx, reverse, origin, destination, days,
+                    PriceWeighter.WEIGHTER, new OriginPriceWeighter(days));
+            default:
+                return minPathTotalTime(s, ctx, origin, destination, days);
+        }
+    }
+
+    /**
+     * Resuelve varios pedidos de camino en paralelo en el pool comun de
+     * {@link ForkJoinPool}
+     * @see #findRoutes(List, ForkJoinPool)
+     */
+    public List<RouteResult> findRoutes (List<RouteQuery> queries) {
+        return findRoutes(queries, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Resuelve varios pedidos de camino en paralelo sobre la foto actual del grafo. Cada hilo
+     * usa sus propios contextos de busqueda; los resultados son los mismos que resolviendo los
+     * pedidos de a uno, sin usar los arboles guardados.
+     * @param queries pedidos de camino
+     * @param pool pool en el que se reparten los pedidos
+     * @return un resultado por pedido, en el mismo orden
+     */
+    public List<RouteResult> findRoutes (List<RouteQuery> queries, ForkJoinPool pool) {
+        return snapshot().findRoutes(queries, pool);
+    }
+
+    List<RouteResult> findRoutes (FlightSnapshot s, List<RouteQuery> queries,
+        ForkJoinPool pool) {
+        // Se piden antes las estructuras auxiliares para que los hilos solo las lean
+        getLandmarks(s);
+        if (contraction) {
+            getHierarchy(s, PriceWeighter.WEIGHTER);
+            getHierarchy(s, AirtimeWeighter.WEIGHTER);
+        }
+        RouteResult[] results = new RouteResult[queries.size()];
+        pool.invoke(new BatchTask(s, new ArrayList<>(queries), results, 0, queries.size()));
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Devuelve la cota inferior a usar en una busqueda hacia <i>destination</i>, o null si no
+     * esta activado A*. Si hay landmarks al dia se combinan con la cota geografica.
+     * @param weighter weighter con el criterio de la busqueda
+     */
+    private LowerBound lowerBound (FlightSnapshot s, Airport destination,
+        StaticWeighter weighter) {
+        if (!aStar)
+            return null;
+        FlightGraph g = s.getGraph();
+        LowerBound bound = new GreatCircleBound(g, destination, weighter.minWeightPerKm(g));
+        Landmarks landmarks = getLandmarks(s);
+        if (landmarks == null)
+            return bound;
+        return new MaxBound(bound, weighter.landmarkBound(landmarks, destination));
+    }
+
+    /**
+     * Devuelve los landmarks que sirven para la foto. Si no hay lanza su calculo en segundo
+     * plano y devuelve null, para que mientras tanto se busque solo con las cotas geograficas.
+     */
+    private Landmarks getLandmarks (FlightSnapshot s) {
+        if (landmarkCount == 0)
+            return null;
+        LandmarksBuild build = landmarksBuild;
+        if (!fits(build, s))
+            build = startLandmarks(s);
+        return build == null ? null : build.result;
+    }
+
+    /**
+     * Los landmarks sirven para una foto si desde que se calcularon solo se eliminaron vuelos,
+     * ya que eliminar vuelos no acorta caminos
+     */
+    private boolean fits (LandmarksBuild build, FlightSnapshot s) {
+        return build != null && build.count == landmarkCount
+            && build.version == s.getLandmarksVersion() && build.snapshot <= s.getVersion();
+    }
+
+    /**
+     * Encola el calculo de landmarks sobre la foto si ningun otro hilo lo encolo antes,
+     * descartando el anterior si todavia no empezo. No se calculan para fotos anteriores al
+     * ultimo calculo.
+     * @return el calculo que sirve para la foto, o null si no hay
+     */
+    private synchronized LandmarksBuild startLandmarks (FlightSnapshot s) {
+        LandmarksBuild build = landmarksBuild;
+        if (fits(build, s))
+            return build;
+        if (build != null && build.snapshot > s.getVersion())
+            return null;
+        if (build != null)
+            builder.remove(build);
+        build = new LandmarksBuild(s, landmarkCount);
+        landmarksBuild = build;
+        builder.execute(build);
+        return build;
+    }
+
+    /**
+     * Devuelve la jerarquia de contraccion del criterio para la foto. Si no esta al dia lanza
+     * su construccion en segundo plano y devuelve null, para que mientras tanto se busque con
+     * los demas algoritmos.
+     */
+    private ContractionHierarchy getHierarchy (FlightSnapshot s, StaticWeighter weighter) {
+        boolean price = weighter == PriceWeighter.WEIGHTER;
+        HierarchyBuild build = price ? priceHierarchy : airtimeHierarchy;
+        if (build == null || build.snapshot != s.getVersion())
+            build = startHierarchy(s, weighter);
+        return build == null ? null : build.result;
+    }
+
+    /**
+     * Encola la construccion de la jerarquia del criterio si ningun otro hilo la encolo antes,
+     * descartando la anterior del criterio si todavia no empezo. No se construyen para fotos
+     * anteriores a la ultima construccion.
+     * @return la construccion sobre la foto, o null si no hay
+     */
+    private synchronized HierarchyBuild startHierarchy (FlightSnapshot s,
+        StaticWeighter weighter) {
+        boolean price = weighter == PriceWeighter.WEIGHTER;
+        HierarchyBuild build = price ? priceHierarchy : airtimeHierarchy;
+        if (build != null && build.snapshot == s.getVersion())
+            return build;
+        if (build != null && build.snapshot > s.getVersion())
+            return null;
+        if (build != null)
+            builder.remove(build);
+        build = new HierarchyBuild(s, weighter);
+        if (price)
+            priceHierarchy = build;
+        else
+            airtimeHierarchy = build;
+        builder.execute(build);
+        return build;
+    }
+
+    /**
+     * Activa o desactiva las jerarquias de contraccion para los caminos mas baratos y mas
+     * rapidos que pueden salir cualquier dia. Cada criterio tiene su jerarquia, que se
+     * reconstruye en segundo plano ante cualquier cambio en los aeropuertos o los vuelos.
+     * @see ContractionHierarchy
+     */
+    public void setContractionHierarchy (boolean contraction) {
+        lock.writeLock().lock();
+        try {
+            this.contraction = contraction;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Configura la cantidad de landmarks con los que A* acota el precio y el tiempo restante.
+     * Se recalculan en segundo plano despues de agregar vuelos o modificar aeropuertos; al
+     * eliminar vuelos siguen siendo validos.
+     * @param count cantidad de landmarks, 0 para no usarlos
+     * @see Landmarks
+     */
+    public void setLandmarks (int count) {
+        lock.writeLock().lock();
+        try {
+            if (count < 0)
+                throw new IllegalArgumentException("Cantidad de landmarks negativa");
+            landmarkCount = count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Activa o desactiva la busqueda con A*, que usa la distancia geografica entre aeropuertos
+     * para explorar menos aeropuertos. Los caminos encontrados tienen el mismo peso.
+     */
+    public void setAStar (boolean aStar) {
+        lock.writeLock().lock();
+        try {
+            this.aStar = aStar;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Activa o desactiva la busqueda bidireccional para los caminos mas baratos y mas rapidos.
+     * Cuando esta activa no se usa A* en esas busquedas.
+     */
+    public void setBidirectional (boolean bidirectional) {
+        lock.writeLock().lock();
+        try {
+            this.bidirectional = bidirectional;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return InfinityDijkstra.minPath(airports, origin, destination, weighter, originWeighter, days);
+    }
 
+    /**
+     * Elige el algoritmo con el que se busca el camino de menor tiempo total. Todos devuelven
+     * caminos con el mismo tiempo total.
+     */
+    public void setTotalTimeEngine (TotalTimeEngine engine) {
+        lock.writeLock().lock();
+        try {
+            if (engine == null)
+                throw new IllegalArgumentException("Motor nulo");
+            totalTimeEngine = engine;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     private void removeRoutesTo (Airport airport) {
@@ -192,17 +839,145 @@ public class FlightAssistant {
             iter.next().removeRouteTo(airport);
     }
 
-    public void refreshAirportsNodeProperties () {
-        Iterator<Airport> airportsIter = airports.valueIterator();
-        while (airportsIter.hasNext())
-            airportsIter.next().nodeRefresh();
+    /**
+     * Devuelve el grafo de la foto actual
+     * @see #snapshot()
+     * @see FlightGraph
+     */
+    public FlightGraph getGraph () {
+        return snapshot().getGraph();
+    }
+
+    /**
+     * Devuelve la foto actual de los aeropuertos y vuelos, armando una nueva si hubo cambios
+     * desde la ultima. Las busquedas sobre la foto no ven los cambios posteriores ni los
+     * esperan.
+     * @see FlightSnapshot
+     */
+    public FlightSnapshot snapshot () {
+        FlightSnapshot s = current;
+        if (s != null)
+            return s;
+        lock.readLock().lock();
+        try {
+            // Varios lectores pueden pedirla a la vez, pero solo uno la arma
+            synchronized (this) {
+                if (current == null) {
+                    FlightGraph g = new FlightGraph(airportsByIndex);
+                    current = new FlightSnapshot(this, g, ++snapshotVersion, landmarksVersion);
+                }
+                return current;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
+    /**
+     * Devuelve una copia de los aeropuertos cargados, que puede recorrerse mientras otro hilo
+     * los modifica. Los pares no se copian: la copia comparte los nodos con el mapa original.
+     * @see AVLHashMap#snapshot()
+     */
     public SimpleMap<String, Airport> getAirports () {
-        return airports;
+        lock.readLock().lock();
+        try {
+            return airports.snapshot();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
+    /**
+     * Devuelve una copia de los vuelos cargados, como {@link #getAirports()}
+     */
     public SimpleMap<FlightId, Flight> getFlights () {
-        return flights;
+        lock.readLock().lock();
+        try {
+            return flights.snapshot();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Calculo de landmarks sobre una foto, que se publica al terminar
+     */
+    private static class LandmarksBuild implements Runnable {
+        private final FlightGraph graph;
+        private final int count;
+        private final int version;
+        private final long snapshot;
+        private volatile Landmarks result;
+
+        private LandmarksBuild (FlightSnapshot s, int count) {
+            graph = s.getGraph();
+            this.count = count;
+            version = s.getLandmarksVersion();
+            snapshot = s.getVersion();
+        }
+
+        @Override public void run () {
+            result = new Landmarks(graph, count);
+        }
+    }
+
+    /**
+     * Resuelve los pedidos de <tt>[from, to)</tt>, dividiendolos mientras sean muchos. Cada
+     * tarea que resuelve pedidos crea sus contextos de busqueda.
+     */
+    private class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FlightSnapshot snapshot;
+        private final List<RouteQuery> queries;
+        private final RouteResult[] results;
+        private final int from;
+        private final int to;
+
+        private BatchTask (FlightSnapshot snapshot, List<RouteQuery> queries,
+            RouteResult[] results, int from, int to) {
+            this.snapshot = snapshot;
+            this.queries = queries;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override protected void compute () {
+            if (to - from > BATCH_CHUNK_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BatchTask(snapshot, queries, results, from, mid),
+                    new BatchTask(snapshot, queries, results, mid, to));
+                return;
+            }
+            int n = snapshot.getGraph().size();
+            SearchContext ctx = new SearchContext(Math.max(n, 1));
+            SearchContext reverse = new SearchContext(Math.max(n, 1));
+            for (int i = from; i < to; i++) {
+                long start = System.nanoTime();
+                List<Ticket> route = route(snapshot, ctx, reverse, queries.get(i));
+                results[i] = new RouteResult(queries.get(i), route, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Construccion de una jerarquia de contraccion sobre una foto, que se publica al terminar
+     */
+    private static class HierarchyBuild implements Runnable {
+        private final FlightGraph graph;
+        private final StaticWeighter weighter;
+        private final long snapshot;
+        private volatile ContractionHierarchy result;
+
+        private HierarchyBuild (FlightSnapshot s, StaticWeighter weighter) {
+            graph = s.getGraph();
+            this.weighter = weighter;
+            snapshot = s.getVersion();
+        }
+
+        @Override public void run () {
+            result = new ContractionHierarchy(graph, weighter);
+        }
     }
 }
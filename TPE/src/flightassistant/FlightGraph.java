@@ -0,0 +1,337 @@
+package flightassistant;
+
+import utils.Day;
+import utils.Day.WeekArray;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Foto inmutable del grafo de aeropuertos en formato de adyacencia comprimida (CSR).
+ * Los nodos son los ids densos de los {@link Airport}; las aristas salientes del nodo
+ * <i>u</i> ocupan las posiciones <tt>[firstEdge(u), endEdge(u))</tt> de arreglos paralelos
+ * con el nodo destino, la {@link Route} y los tickets mas baratos y mas rapidos de la arista,
+ * tanto de toda la semana como de cada dia.
+ * <p>
+ * Solo hay arista de <i>u</i> a <i>v</i> si existe al menos un vuelo en ese sentido. Tambien
+ * se guardan las aristas entrantes de cada nodo, como indices a las salientes, para poder
+ * recorrer el grafo en sentido inverso.
+ * Ademas se calcula el menor precio y el menor tiempo de vuelo por kilometro recorrido, que
+ * sirven de base para las cotas geograficas de A*.
+ * El {@link FlightAssistant} la reconstruye de forma perezosa despues de cada modificacion,
+ * por lo que las busquedas recorren arreglos contiguos en lugar de los mapas de rutas.
+ * Despues de construida no lee las rutas: los vuelos de cada arista se toman de la
+ * {@link DepartureTable} de la ruta, que no cambia, por lo que la foto sigue siendo valida
+ * aunque se modifiquen los vuelos.
+ * Los aeropuertos eliminados dejan su id denso libre, sin aristas, hasta que se reutiliza.
+ * @see InfinityDijkstra
+ */
+public class FlightGraph {
+
+    /** Margen para que los redondeos no vuelvan inadmisibles a las cotas por kilometro */
+    private static final double BOUND_SAFETY = 1 - 1e-9;
+
+    private static final Comparator<Airport> ID_CMP = new Comparator<Airport>() {
+        @Override public int compare (Airport a1, Airport a2) {
+            return a1.getId().compareTo(a2.getId());
+        }
+    };
+
+    private Airport[] airports;
+    private Airport[] byId;
+    private int[] offsets;
+    private int[] sources;
+    private int[] targets;
+    private int[] reverseOffsets;
+    private int[] reverseEdges;
+    private DepartureTable[] departures;
+    private Ticket[] cheapest;
+    private Ticket[] quickest;
+    private WeekArray<Ticket[]> cheapestByDay;
+    private WeekArray<Ticket[]> quickestByDay;
+    private double minPricePerKm = Double.POSITIVE_INFINITY;
+    private double minAirtimePerKm = Double.POSITIVE_INFINITY;
+    private volatile Timetable timetable;
+
+    /**
+     * Construye la foto del grafo
+     * @param airportsByIndex aeropuertos indexados por su id denso
+     */
+    FlightGraph (List<Airport> airportsByIndex) {
+        int n = airportsByIndex.size();
+        airports = airportsByIndex.toArray(new Airport[n]);
+        offsets = new int[n + 1];
+
+        int edges = 0;
+        for (int u = 0; u < n; u++) {
+            if (airports[u] == null)
+                continue;
+            Iterator<Airport> iter = airports[u].connectedAirportsIterator();
+            while (iter.hasNext())
+                if (airports[u].flightExistsTo(iter.next()))
+                    edges++;
+        }
+
+        sources = new int[edges];
+        targets = new int[edges];
+        departures = new DepartureTable[edges];
+        cheapest = new Ticket[edges];
+        quickest = new Ticket[edges];
+        cheapestByDay = Day.newWeekArray();
+        quickestByDay = Day.newWeekArray();
+        for (Day day : allDays()) {
+            cheapestByDay.insert(day, new Ticket[edges]);
+            quickestByDay.insert(day, new Ticket[edges]);
+        }
+
+        int e = 0;
+        for (int u = 0; u < n; u++) {
+            offsets[u] = e;
+            Airport from = airports[u];
+            if (from == null)
+                continue;
+            Iterator<Airport> iter = from.connectedAirportsIterator();
+            while (iter.hasNext()) {
+                Airport to = iter.next();
+                if (!from.flightExistsTo(to))
+                    continue;
+                Route route = from.getRouteTo(to);
+                sources[e] = u;
+                targets[e] = to.getIndex();
+                departures[e] = route.departuresFrom(from);
+                cheapest[e] = route.getCheapestFrom(from);
+                quickest[e] = route.getQuickestFrom(from);
+                for (Day day : allDays()) {
+                    cheapestByDay.get(day)[e] = route.getCheapestFrom(from, day);
+                    quickestByDay.get(day)[e] = route.getQuickestFrom(from, day);
+                }
+                updatePerKmBounds(from.distanceTo(to), cheapest[e], quickest[e]);
+                e++;
+            }
+        }
+        offsets[n] = e;
+        buildReverse(n);
+        buildIdIndex();
+
+        minPricePerKm = Double.isInfinite(minPricePerKm) ? 0 : minPricePerKm * BOUND_SAFETY;
+        minAirtimePerKm = Double.isInfinite(minAirtimePerKm) ? 0 : minAirtimePerKm * BOUND_SAFETY;
+    }
+
+    /**
+     * Ordena los aeropuertos por id para buscarlos sin consultar el mapa del
+     * {@link FlightAssistant}, que puede cambiar
+     */
+    private void buildIdIndex () {
+        int count = 0;
+        for (Airport airport : airports)
+            if (airport != null)
+                count++;
+        byId = new Airport[count];
+        int i = 0;
+        for (Airport airport : airports)
+            if (airport != null)
+                byId[i++] = airport;
+        Arrays.sort(byId, ID_CMP);
+    }
+
+    /**
+     * Agrupa las aristas por nodo destino, por counting sort sobre los destinos
+     */
+    private void buildReverse (int n) {
+        reverseOffsets = new int[n + 1];
+        reverseEdges = new int[targets.length];
+        for (int e = 0; e < targets.length; e++)
+            reverseOffsets[targets[e] + 1]++;
+        for (int v = 0; v < n; v++)
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        int[] next = new int[n];
+        System.arraycopy(reverseOffsets, 0, next, 0, n);
+        for (int e = 0; e < targets.length; e++)
+            reverseEdges[next[targets[e]]++] = e;
+    }
+
+    private void updatePerKmBounds (double km, Ticket cheapest, Ticket quickest) {
+        if (km > 0) {
+            minPricePerKm = Math.min(minPricePerKm, cheapest.getPrice() / km);
+            minAirtimePerKm = Math.min(minAirtimePerKm, quickest.getDuration().getMinutes() / km);
+        }
+    }
+
+    static Day[] allDays () {
+        Day[] days = new Day[Day.TOTAL_DAYS];
+        Day day = Day.LU;
+        for (int i = 0; i < days.length; i++, day = day.getNextDay())
+            days[i] = day;
+        return days;
+    }
+
+    /**
+     * Devuelve el horario con todas las conexiones del grafo, construyendolo la primera vez
+     * @see Timetable
+     */
+    public Timetable getTimetable () {
+        if (timetable == null)
+            timetable = new Timetable(this);
+        return timetable;
+    }
+
+    /**
+     * Devuelve la funcion de tiempo de viaje de la arista
+     * @see TravelTimeFunction
+     */
+    public TravelTimeFunction getTravelTime (int edge) {
+        return departures[edge].getTravelTime();
+    }
+
+    /**
+     * Cantidad de nodos (aeropuertos) del grafo
+     */
+    public int size () {
+        return airports.length;
+    }
+
+    /**
+     * Cantidad de aristas (sentidos de ruta con vuelos) del grafo
+     */
+    public int edgeCount () {
+        return targets.length;
+    }
+
+    /**
+     * Devuelve el aeropuerto con el id denso dado, o null si no hay ninguno con ese id
+     */
+    public Airport getAirport (int node) {
+        return airports[node];
+    }
+
+    /**
+     * Devuelve el aeropuerto del grafo con el id dado, o null si no existe
+     */
+    public Airport getAirport (String id) {
+        int low = 0;
+        int high = byId.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = byId[mid].getId().compareTo(id);
+            if (cmp < 0)
+                low = mid + 1;
+            else if (cmp > 0)
+                high = mid - 1;
+            else
+                return byId[mid];
+        }
+        return null;
+    }
+
+    /**
+     * Primera arista saliente del nodo
+     */
+    public int firstEdge (int node) {
+        return offsets[node];
+    }
+
+    /**
+     * Posicion siguiente a la ultima arista saliente del nodo
+     */
+    public int endEdge (int node) {
+        return offsets[node + 1];
+    }
+
+    /**
+     * Primera posicion de las aristas entrantes al nodo
+     * @see #getReverseEdge(int)
+     */
+    public int firstReverseEdge (int node) {
+        return reverseOffsets[node];
+    }
+
+    /**
+     * Posicion siguiente a la ultima arista entrante al nodo
+     */
+    public int endReverseEdge (int node) {
+        return reverseOffsets[node + 1];
+    }
+
+    /**
+     * Devuelve la arista entrante que ocupa la posicion dada
+     * @param position posicion entre <tt>[firstReverseEdge(v), endReverseEdge(v))</tt>
+     * @return la arista, con la misma numeracion que las salientes
+     */
+    public int getReverseEdge (int position) {
+        return reverseEdges[position];
+    }
+
+    /**
+     * Nodo del que sale la arista
+     */
+    public int getSource (int edge) {
+        return sources[edge];
+    }
+
+    /**
+     * Nodo al que llega la arista
+     */
+    public int getTarget (int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Vuelos de la arista ordenados por minuto de salida dentro de la semana
+     */
+    public DepartureTable getDepartures (int edge) {
+        return departures[edge];
+    }
+
+    /**
+     * Vuelos de la arista que salen el dia dado, ordenados por horario de salida
+     */
+    public Iterator<Ticket> dayFlights (int edge, Day day) {
+        return departures[edge].dayFlights(day);
+    }
+
+    /**
+     * Ticket mas barato de la arista en toda la semana
+     */
+    public Ticket getCheapest (int edge) {
+        return cheapest[edge];
+    }
+
+    /**
+     * Ticket mas rapido (menor tiempo de vuelo) de la arista en toda la semana
+     */
+    public Ticket getQuickest (int edge) {
+        return quickest[edge];
+    }
+
+    /**
+     * Menor precio por kilometro de cualquier vuelo del grafo
+     */
+    public double getMinPricePerKm () {
+        return minPricePerKm;
+    }
+
+    /**
+     * Menor tiempo de vuelo en minutos por kilometro de cualquier vuelo del grafo. Es la cota
+     * mas ajustada que sigue siendo valida: una velocidad maxima configurada que ningun vuelo
+     * supera daria una cota menor o igual.
+     */
+    public double getMinAirtimePerKm () {
+        return minAirtimePerKm;
+    }
+
+    /**
+     * Ticket mas barato de la arista que sale el dia dado, o null si no hay
+     */
+    public Ticket getCheapest (int edge, Day day) {
+        return cheapestByDay.get(day)[edge];
+    }
+
+    /**
+     * Ticket mas rapido de la arista que sale el dia dado, o null si no hay
+     */
+    public Ticket getQuickest (int edge, Day day) {
+        return quickestByDay.get(day)[edge];
+    }
+}
@@ -0,0 +1,231 @@
+package flightassistant;
+
+import utils.Day;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Version inmutable de los aeropuertos y vuelos de un {@link FlightAssistant}. Todas las
+ * busquedas sobre una misma foto ven los mismos vuelos aunque mientras tanto se agreguen o
+ * eliminen otros, por lo que sirve para trabajos largos como matrices o perfiles.
+ * <p>
+ * Tomar la foto actual no copia nada si no hubo cambios. Despues de un cambio se arma un nuevo
+ * {@link FlightGraph}, que comparte con las fotos anteriores los aeropuertos, los tickets y las
+ * {@link DepartureTable} de las rutas que no cambiaron. Una foto vieja se libera cuando ya no
+ * la usa ninguna consulta.
+ * @see FlightAssistant#snapshot()
+ */
+public class FlightSnapshot {
+
+    private static final int MAX_CACHED_TREES = 64;
+
+    private final FlightAssistant assistant;
+    private final FlightGraph graph;
+    private final long version;
+    private final int landmarksVersion;
+
+    /** Arboles de caminos minimos calculados sobre esta foto, del menos al mas usado */
+    private final Map<TreeKey, ShortestPathTree> trees;
+
+    /**
+     * @param version numero de la foto, creciente en cada cambio
+     * @param landmarksVersion cantidad de modificaciones que pueden acortar caminos hechas
+     * hasta la foto
+     */
+    FlightSnapshot (FlightAssistant assistant, FlightGraph graph, long version,
+        int landmarksVersion) {
+        this.assistant = assistant;
+        this.graph = graph;
+        this.version = version;
+        this.landmarksVersion = landmarksVersion;
+        trees = new LinkedHashMap<TreeKey, ShortestPathTree>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry (Map.Entry<TreeKey, ShortestPathTree> e) {
+                return size() > MAX_CACHED_TREES;
+            }
+        };
+    }
+
+    /**
+     * Numero de la foto. Una foto con mayor numero refleja todos los cambios de las anteriores.
+     */
+    public long getVersion () {
+        return version;
+    }
+
+    int getLandmarksVersion () {
+        return landmarksVersion;
+    }
+
+    public FlightGraph getGraph () {
+        return graph;
+    }
+
+    /**
+     * Devuelve el aeropuerto con el id dado, o null si no existia al tomar la foto
+     */
+    public Airport getAirport (String id) {
+        return graph.getAirport(id);
+    }
+
+    /**
+     * @see FlightAssistant#findQuickestPath(String, String, List)
+     */
+    public List<Ticket> findQuickestPath (String orig, String dest, List<Day> days) {
+        return assistant.findPath(this, orig, dest, days, AirtimeWeighter.WEIGHTER,
+            new OriginAirtimeWeighter(days));
+    }
+
+    /**
+     * @see FlightAssistant#findCheapestPath(String, String, List)
+     */
+    public List<Ticket> findCheapestPath (String orig, String dest, List<Day> days) {
+        return assistant.findPath(this, orig, dest, days, PriceWeighter.WEIGHTER,
+            new OriginPriceWeighter(days));
+    }
+
+    /**
+     * @see FlightAssistant#findShortestTotalTimeRoute(String, String, List)
+     */
+    public List<Ticket> findShortestTotalTimeRoute (String orig, String dest, List<Day> days) {
+        return assistant.findShortestTotalTimeRoute(this, orig, dest, days);
+    }
+
+    /**
+     * @see FlightAssistant#findTotalTimeProfile(String, String)
+     */
+    public TotalTimeProfile findTotalTimeProfile (String orig, String dest) {
+        return assistant.findTotalTimeProfile(this, orig, dest);
+    }
+
+    /**
+     * @see FlightAssistant#findQuickestPaths(String, String, List, int)
+     */
+    public List<List<Ticket>> findQuickestPaths (String orig, String dest, List<Day> days, int k) {
+        return assistant.findPaths(this, orig, dest, days, AirtimeWeighter.WEIGHTER,
+            new OriginAirtimeWeighter(days), k);
+    }
+
+    /**
+     * @see FlightAssistant#findCheapestPaths(String, String, List, int)
+     */
+    public List<List<Ticket>> findCheapestPaths (String orig, String dest, List<Day> days, int k) {
+        return assistant.findPaths(this, orig, dest, days, PriceWeighter.WEIGHTER,
+            new OriginPriceWeighter(days), k);
+    }
+
+    /**
+     * @see FlightAssistant#findCheapestTree(String, List)
+     */
+    public ShortestPathTree findCheapestTree (String orig, List<Day> days) {
+        return assistant.findTree(this, orig, days, PriceWeighter.WEIGHTER,
+            new OriginPriceWeighter(days));
+    }
+
+    /**
+     * @see FlightAssistant#findQuickestTree(String, List)
+     */
+    public ShortestPathTree findQuickestTree (String orig, List<Day> days) {
+        return assistant.findTree(this, orig, days, AirtimeWeighter.WEIGHTER,
+            new OriginAirtimeWeighter(days));
+    }
+
+    /**
+     * @see FlightAssistant#findCheapestMatrix(List, List, List, boolean)
+     */
+    public RouteMatrix findCheapestMatrix (List<String> origs, List<String> dests,
+        List<Day> days, boolean itineraries) {
+        return assistant.findMatrix(this, origs, dests, days, PriceWeighter.WEIGHTER,
+            new OriginPriceWeighter(days), itineraries);
+    }
+
+    /**
+     * @see FlightAssistant#findQuickestMatrix(List, List, List, boolean)
+     */
+    public RouteMatrix findQuickestMatrix (List<String> origs, List<String> dests,
+        List<Day> days, boolean itineraries) {
+        return assistant.findMatrix(this, origs, dests, days, AirtimeWeighter.WEIGHTER,
+            new OriginAirtimeWeighter(days), itineraries);
+    }
+
+    /**
+     * @see FlightAssistant#findParetoRoutes(String, String, List, List, boolean)
+     */
+    public List<List<Ticket>> findParetoRoutes (String orig, String dest, List<Day> days,
+        List<StaticWeighter> criteria, boolean totalTime) {
+        return assistant.findParetoRoutes(this, orig, dest, days, criteria, totalTime);
+    }
+
+    /**
+     * @see FlightAssistant#findRoutesByTransfers(String, String, List, int)
+     */
+    public List<List<Ticket>> findRoutesByTransfers (String orig, String dest, List<Day> days,
+        int maxFlights) {
+        return assistant.findRoutesByTransfers(this, orig, dest, days, maxFlights);
+    }
+
+    /**
+     * @see FlightAssistant#findRoutes(List, ForkJoinPool)
+     */
+    public List<RouteResult> findRoutes (List<RouteQuery> queries, ForkJoinPool pool) {
+        return assistant.findRoutes(this, queries, pool);
+    }
+
+    /**
+     * Devuelve el arbol guardado para el origen, el criterio y los dias, o null si no hay
+     */
+    ShortestPathTree cachedTree (Airport origin, StaticWeighter weighter, List<Day> days) {
+        TreeKey key = new TreeKey(origin, weighter, days);
+        synchronized (trees) {
+            return trees.get(key);
+        }
+    }
+
+    /**
+     * Guarda un arbol calculado sobre esta foto. Si hay demasiados se descarta el que hace mas
+     * tiempo que no se usa.
+     */
+    void cacheTree (Airport origin, StaticWeighter weighter, List<Day> days,
+        ShortestPathTree tree) {
+        TreeKey key = new TreeKey(origin, weighter, days);
+        synchronized (trees) {
+            trees.put(key, tree);
+        }
+    }
+
+    /**
+     * Identifica un arbol de caminos minimos por su origen, su criterio y los dias de salida
+     */
+    private static class TreeKey {
+        private final int origin;
+        private final boolean price;
+        private final int days;     // un bit por dia, 0 si se sale cualquier dia
+
+        private TreeKey (Airport origin, StaticWeighter weighter, List<Day> days) {
+            this.origin = origin.getIndex();
+            price = weighter == PriceWeighter.WEIGHTER;
+            int mask = 0;
+            for (Day day : days)
+                mask |= 1 << Day.LU.getDaysDifference(day);
+            this.days = mask;
+        }
+
+        @Override public boolean equals (Object other) {
+            if (other == this)
+                return true;
+            if (other == null || !other.getClass().equals(getClass()))
+                return false;
+            TreeKey o = (TreeKey) other;
+            return origin == o.origin && price == o.price && days == o.days;
+        }
+
+        @Override public int hashCode () {
+            int result = origin;
+            result = 31 * result + (price ? 1 : 0);
+            result = 31 * result + days;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package flightassistant;
+
+/**
+ * {@link LowerBound} geografica: la distancia sobre un circulo maximo hasta el destino
+ * multiplicada por el menor peso por kilometro del criterio. Como ningun vuelo pesa menos
+ * que ese minimo por cada kilometro que recorre, la cota es admisible y, por la desigualdad
+ * triangular, consistente.
+ * @see StaticWeighter#minWeightPerKm(FlightGraph)
+ */
+public class GreatCircleBound implements LowerBound {
+
+    private FlightGraph graph;
+    private Airport target;
+    private double weightPerKm;
+
+    /**
+     * @param graph grafo de la busqueda
+     * @param target aeropuerto destino
+     * @param weightPerKm menor peso por kilometro de cualquier arista
+     */
+    public GreatCircleBound (FlightGraph graph, Airport target, double weightPerKm) {
+        this.graph = graph;
+        this.target = target;
+        this.weightPerKm = weightPerKm;
+    }
+
+    @Override public double estimate (int node) {
+        if (weightPerKm == 0)
+            return 0;
+        return graph.getAirport(node).distanceTo(target) * weightPerKm;
+    }
+}
@@ -1,7 +1,6 @@
 package flightassistant;
 
-import structures.BinaryMinHeap;
-import structures.SimpleMap;
+import structures.IndexedMinHeap;
 import utils.Day;
 
 import java.util.Iterator;
@@ -15,51 +14,237 @@ import java.util.List;
  */
 public class InfinityDijkstra {
 
-    public static List<Ticket> minPath (SimpleMap<String, Airport> airports, Airport origin,
-        Airport dest, Weighter weighter) {
-        return minPath(airports, origin, dest, weighter, null, null);
+    public static List<Ticket> minPath (SearchContext ctx, FlightGraph graph, Airport origin,
+        Airport dest, StaticWeighter weighter) {
+        return minPath(ctx, graph, origin, dest, weighter, null, null);
     }
 
     /**
      * Encuentra el el camino minimo entre dos aeropuertos
-     * a partir de un {@link Weighter} y la lista de dias que 
-     * puede partir.
-     * @param airports Aeropuertos
+     * a partir de un {@link StaticWeighter} y de otro que elige los tickets que salen del
+     * origen, por ejemplo segun los dias en los que se puede partir.
+     * @param ctx estado de la busqueda, se reinicia al comenzar
+     * @param graph foto del grafo sobre la que se busca
      * @param origin <tt>Airport</tt> origen
      * @param dest <tt>Airport</tt> destino
      * @param weighter ELige la mejor opcion de ticket
-     * @param originWeighter Elige la mejor opcion de ticket si es el aeropuerto de origen
-     * @param days Lista de dias
+     * @param originWeighter Elige la mejor opcion de ticket si es el aeropuerto de origen,
+     * null si se usa <i>weighter</i>
+     * @param bound cota inferior del peso restante hasta el destino para buscar con A*, o null
+     * para usar Dijkstra
      * @return
      */
-    public static List<Ticket> minPath (SimpleMap<String, Airport> airports, Airport origin,
-        Airport dest, Weighter weighter, Weighter originWeighter, List<Day> days) {
+    public static List<Ticket> minPath (SearchContext ctx, FlightGraph graph, Airport origin,
+        Airport dest, StaticWeighter weighter, StaticWeighter originWeighter, LowerBound bound) {
 
-        BinaryMinHeap<Airport> pq = queueAirports(airports);
+        int source = origin.getIndex();
+        int target = dest.getIndex();
 
-        pq.decreasePriority(origin, 0);  // El origen queda al tope de la cola
+        ctx.reset(graph.size());
+        relax(ctx, bound, source, 0, null);  // El origen queda al tope de la cola
 
-        if (originWeighter != null) {
-            findPath(pq, dest, originWeighter, days, true, Double.POSITIVE_INFINITY);
+        IndexedMinHeap pq = ctx.getQueue();
+        while (!pq.isEmpty()) {
+            int current = pq.dequeueId();
+            double minWeight = ctx.getDistance(current);
+            ctx.visit(current);
+
+            // Camino encontrado
+            if (current == target) {
+                return buildList(ctx, dest);
+            }
+
+            // Los tickets que salen del origen los elige originWeighter
+            StaticWeighter w = (current == source && originWeighter != null) ? originWeighter
+                : weighter;
+
+            for (int e = graph.firstEdge(current); e < graph.endEdge(current); e++) {
+                int next = graph.getTarget(e);
+                if (ctx.visited(next))
+                    continue;
+                Ticket ticket = w.edgeTicket(graph, e);
+                if (ticket != null)
+                    relax(ctx, bound, next, minWeight + w.weight(ticket), ticket);
+            }
         }
+        return new LinkedList<>(); // lista vacia si no enontró camino
+    }
 
-        Box b = findPath(pq, dest, weighter, null, false, Double.POSITIVE_INFINITY);
-        return (b != null) ? b.list : new LinkedList<>(); // lista vacia si no enontró camino
+    /**
+     * Encuentra los caminos minimos desde un aeropuerto hacia todos los demas, continuando la
+     * busqueda hasta vaciar la cola.
+     * @param ctx estado de la busqueda, se reinicia al comenzar
+     * @param graph foto del grafo sobre la que se busca
+     * @param origin <tt>Airport</tt> origen
+     * @param weighter Elige la mejor opcion de ticket
+     * @param originWeighter Elige la mejor opcion de ticket si es el aeropuerto de origen,
+     * null si se usa <i>weighter</i>
+     * @return el arbol de caminos minimos, independiente del contexto
+     */
+    public static ShortestPathTree oneToAll (SearchContext ctx, FlightGraph graph,
+        Airport origin, StaticWeighter weighter, StaticWeighter originWeighter) {
+
+        int source = origin.getIndex();
+        ctx.reset(graph.size());
+        relax(ctx, null, source, 0, null);
+
+        IndexedMinHeap pq = ctx.getQueue();
+        while (!pq.isEmpty()) {
+            int current = pq.dequeueId();
+            double minWeight = ctx.getDistance(current);
+            ctx.visit(current);
+
+            StaticWeighter w = (current == source && originWeighter != null) ? originWeighter
+                : weighter;
+            for (int e = graph.firstEdge(current); e < graph.endEdge(current); e++) {
+                int next = graph.getTarget(e);
+                if (ctx.visited(next))
+                    continue;
+                Ticket ticket = w.edgeTicket(graph, e);
+                if (ticket != null)
+                    relax(ctx, null, next, minWeight + w.weight(ticket), ticket);
+            }
+        }
+        return new ShortestPathTree(graph, origin, ctx);
+    }
+
+    /**
+     * Encuentra el camino minimo entre dos aeropuertos con una busqueda bidireccional: una
+     * busqueda avanza desde el origen y otra retrocede desde el destino por las aristas
+     * entrantes, hasta que la suma de los topes de ambas colas supera al mejor camino que las
+     * une. Los tickets que salen del origen los elige <i>originWeighter</i> en ambos sentidos,
+     * y la busqueda hacia atras no sigue mas alla del origen.
+     * @param forward estado de la busqueda desde el origen, se reinicia al comenzar
+     * @param backward estado de la busqueda desde el destino, se reinicia al comenzar
+     * @param graph foto del grafo sobre la que se busca
+     * @param origin <tt>Airport</tt> origen
+     * @param dest <tt>Airport</tt> destino
+     * @param weighter Elige la mejor opcion de ticket
+     * @param originWeighter Elige la mejor opcion de ticket si es el aeropuerto de origen,
+     * null si se usa <i>weighter</i>
+     * @return
+     */
+    public static List<Ticket> minPathBidirectional (SearchContext forward,
+        SearchContext backward, FlightGraph graph, Airport origin, Airport dest,
+        StaticWeighter weighter, StaticWeighter originWeighter) {
+
+        int source = origin.getIndex();
+        int target = dest.getIndex();
+        StaticWeighter first = originWeighter == null ? weighter : originWeighter;
+
+        forward.reset(graph.size());
+        backward.reset(graph.size());
+        relax(forward, null, source, 0, null);
+        relax(backward, null, target, 0, null);
+
+        IndexedMinHeap forwardQueue = forward.getQueue();
+        IndexedMinHeap backwardQueue = backward.getQueue();
+        double best = Double.POSITIVE_INFINITY;   // peso del mejor camino que une ambas busquedas
+        int meeting = -1;
+        while (!forwardQueue.isEmpty() && !backwardQueue.isEmpty()) {
+            if (forwardQueue.minPriority() + backwardQueue.minPriority() >= best)
+                break;
+
+            // Se avanza la busqueda con la frontera mas chica
+            if (forwardQueue.size() <= backwardQueue.size()) {
+                int current = forwardQueue.dequeueId();
+                double minWeight = forward.getDistance(current);
+                forward.visit(current);
+                StaticWeighter w = current == source ? first : weighter;
+
+                for (int e = graph.firstEdge(current); e < graph.endEdge(current); e++) {
+                    int next = graph.getTarget(e);
+                    if (forward.visited(next))
+                        continue;
+                    Ticket ticket = w.edgeTicket(graph, e);
+                    if (ticket != null) {
+                        relax(forward, null, next, minWeight + w.weight(ticket), ticket);
+                        double weight = forward.getDistance(next) + backward.getDistance(next);
+                        if (weight < best) {
+                            best = weight;
+                            meeting = next;
+                        }
+                    }
+                }
+            } else {
+                int current = backwardQueue.dequeueId();
+                double minWeight = backward.getDistance(current);
+                backward.visit(current);
+                if (current == source)
+                    continue;
+
+                int end = graph.endReverseEdge(current);
+                for (int i = graph.firstReverseEdge(current); i < end; i++) {
+                    int e = graph.getReverseEdge(i);
+                    int prev = graph.getSource(e);
+                    if (backward.visited(prev))
+                        continue;
+                    StaticWeighter w = prev == source ? first : weighter;
+                    Ticket ticket = w.edgeTicket(graph, e);
+                    if (ticket != null) {
+                        relax(backward, null, prev, minWeight + w.weight(ticket), ticket);
+                        double weight = forward.getDistance(prev) + backward.getDistance(prev);
+                        if (weight < best) {
+                            best = weight;
+                            meeting = prev;
+                        }
+                    }
+                }
+            }
+        }
+        if (meeting < 0)
+            return new LinkedList<>(); // lista vacia si no enontró camino
+
+        // Tramo del origen al punto de encuentro y del punto de encuentro al destino
+        List<Ticket> list = buildList(forward, graph.getAirport(meeting));
+        Ticket t;
+        for (int node = meeting; (t = backward.getIncident(node)) != null;
+            node = t.getDestination().getIndex())
+            list.add(t);
+        return list;
+    }
+
+    /**
+     * Actualiza la distancia de un nodo si el nuevo peso es menor, encolandolo si todavia no se
+     * lo habia alcanzado. La prioridad en la cola es el peso mas la cota inferior del resto del
+     * camino, que se calcula una unica vez por nodo.
+     */
+    static void relax (SearchContext ctx, LowerBound bound, int node, double weight,
+        Ticket ticket) {
+        if (weight < ctx.getDistance(node)) {
+            IndexedMinHeap pq = ctx.getQueue();
+            // Si todavia no se lo habia alcanzado no esta en la cola
+            if (ctx.isReached(node)) {
+                double priority = weight + ctx.getEstimate(node);
+                if (priority < pq.getPriority(node)) // puede no bajar por redondeo
+                    pq.decreasePriority(node, priority);
+            } else {
+                double estimate = bound == null ? 0 : bound.estimate(node);
+                if (Double.isInfinite(estimate)) // El destino no es alcanzable desde el nodo
+                    return;
+                ctx.setEstimate(node, estimate);
+                pq.enqueue(node, weight + estimate);
+            }
+            ctx.relax(node, weight, ticket);
+        }
     }
 
     /**
      * Retorna una lista de {@link Ticket} con el trayecto desde un aeropuerto origen
      * y un aeropuerto destino a partir de los dias dado cuando se pide el tiempo total.
      * En caso que no se especifiquen dias, se calcula con todos los dias de la semana
-     * @param <tt>FlighAssistant</tt>
+     * @param ctx estado de la busqueda, se reinicia por cada ticket de salida
+     * @param graph foto del grafo sobre la que se busca
      * @param origin <tt>Airport</tt> origen
      * @param dest	<tt>Airport</tt> destino
      * @param days Lista de <tt>Day</tt>, caso de que sea null se chequea con todos los
      * dias de la semana
+     * @param bound cota inferior del tiempo restante hasta el destino para buscar con A*, o null
+     * para usar Dijkstra
      * @return
      */
-    public static List<Ticket> minPathTotalTime (FlightAssistant fa, Airport origin,
-        Airport dest, List<Day> days) {
+    public static List<Ticket> minPathTotalTime (SearchContext ctx, FlightGraph graph,
+        Airport origin, Airport dest, List<Day> days, LowerBound bound) {
 
     	// Se crea una lista con todos los días de la semana si no desea viajar un día especifico
     	if (days.isEmpty()) {
@@ -68,47 +253,36 @@ public class InfinityDijkstra {
     			days.add(day);
     	}
 
-        BinaryMinHeap<Airport> pq;
-        
         List<Ticket> bestPath = null; // Mejor camino encontrado
         double bestWeight = Double.POSITIVE_INFINITY;  // Peso del mejor camino
 
-        Iterator<Airport> adjIter = origin.connectedAirportsIterator();
-
-        // Falta hacer que lo haga en los días dados
-        while (adjIter.hasNext()) {
-
-            Airport adj = adjIter.next();
-            if (origin.flightExistsTo(adj)) {
-            	for (Day day : days) {
-	                Iterator<Ticket> ticketIter = origin.ticketIterTo(adj, day);
-	                Ticket prev = null;
-	                while (ticketIter.hasNext()) {
-	                    Ticket ticket = ticketIter.next();
-	                    if(prev == null || !sameTicketFeatures(ticket, prev)){
-		                	prev = ticket;
-		                    	
-		                	// Para cada vuelo distinto creo el heap de vuelta con los pesos infinitos.
-		                    pq = queueAirports(fa.getAirports());
-		                    pq.decreasePriority(origin, 0);
-		                    pq.dequeue();
-	
-		                    fa.refreshAirportsNodeProperties();
-	
-		                    origin.visit();
-		                    adj.setIncident(ticket);
-		                    pq.decreasePriority(adj, ticket.getDuration().getMinutes());
-	
-		                    Box b = findPath(pq, dest, TotalTimeWeighter.WEIGHTER, days, false, bestWeight);
-	
-		                    // Si se encontró camino de menor peso se reemplaza
-		                    if (b != null && Double.compare(bestWeight,b.lastWeight) > 0) {
-		                        bestWeight = b.lastWeight;
-		                        bestPath = b.list;
-		                    }
-	                    }
-	                }
-	            }
+        int source = origin.getIndex();
+        for (int e = graph.firstEdge(source); e < graph.endEdge(source); e++) {
+            int adj = graph.getTarget(e);
+            for (Day day : days) {
+                Iterator<Ticket> ticketIter = graph.dayFlights(e, day);
+                Ticket prev = null;
+                while (ticketIter.hasNext()) {
+                    Ticket ticket = ticketIter.next();
+                    if (prev == null || !sameTicketFeatures(ticket, prev)) {
+                        prev = ticket;
+
+                        // Para cada vuelo distinto se arranca una busqueda nueva desde el adyacente.
+                        ctx.reset(graph.size());
+
+                        ctx.visit(source);
+                        relax(ctx, bound, adj, ticket.getDuration().getMinutes(), ticket);
+
+                        Box b = findPath(ctx, graph, dest, TotalTimeWeighter.WEIGHTER, bound,
+                            bestWeight);
+
+                        // Si se encontró camino de menor peso se reemplaza
+                        if (b != null && Double.compare(bestWeight, b.lastWeight) > 0) {
+                            bestWeight = b.lastWeight;
+                            bestPath = b.list;
+                        }
+                    }
+                }
             }
         }
         return (bestPath != null) ? bestPath : new LinkedList<>();  // Lista vacia en caso de no encontrar camino
@@ -121,99 +295,68 @@ public class InfinityDijkstra {
      * @param other
      * @return
      */
-    private static boolean sameTicketFeatures(Ticket ticket, Ticket other){
+    static boolean sameTicketFeatures(Ticket ticket, Ticket other){
     	return ticket.getDeparture().equals(other.getDeparture()) 
     			&& ticket.getDuration().equals(other.getDuration());
     }
 
     /**
-     * Encuentra el camino minimo segun el {@link Weighter} recibido.
-     * @param pq PriorityQue
+     * Encuentra el camino minimo segun el {@link Weighter} recibido, continuando la busqueda
+     * que ya tiene encolada el contexto.
+     * @param ctx estado de la busqueda, incluida la cola de prioridades
+     * @param graph foto del grafo sobre la que se busca
      * @param dest <tt>Airport</tt> destino
-     * @param weighter
-     * @param days Lista de dias de los que puede partir un vuelo
-     * @param isOrigin true si es el aeropuerto de origen, false sino
+     * @param weighter elige el ticket de cada arista
+     * @param bound cota inferior del peso restante, o null
      * @param cutWeight peso del mejor camino
      * @return Box con la lista de tickets del trayecto.
      */
-    private static Box findPath (BinaryMinHeap<Airport> pq, Airport dest,
-        Weighter weighter, List<Day> days, boolean isOrigin, double cutWeight) {
+    private static Box findPath (SearchContext ctx, FlightGraph graph, Airport dest,
+        Weighter weighter, LowerBound bound, double cutWeight) {
 
+        IndexedMinHeap pq = ctx.getQueue();
+        int target = dest.getIndex();
         while (!pq.isEmpty()) {
-            Double minWeight = pq.minPriority();
+            double minWeight = pq.minPriority();
 
-            if (minWeight.compareTo(Double.POSITIVE_INFINITY) == 0) {
-                return null; // No existe el camino, no tiene sentido seguir
-            }
- 
-            if (minWeight >= cutWeight) { // El peso acumulado es mayor al del mejor camino encontrado
+            // El peso acumulado (mas la cota del resto) es mayor al del mejor camino encontrado
+            if (minWeight >= cutWeight) {
             	return null;
             }
             
-            Airport current = pq.dequeue();
-            current.visit();
+            int current = pq.dequeueId();
+            ctx.visit(current);
+            minWeight = ctx.getDistance(current);
 
             // Camino encontrado
-            if (current.equals(dest)) {
-                return new Box(buildList(dest), minWeight);
+            if (current == target) {
+                return new Box(buildList(ctx, dest), minWeight);
             }
 
-            Iterator<Airport> iter = current.connectedAirportsIterator();
-            while (iter.hasNext()) {
-                Airport next = iter.next();
-                
-                // Si el adyacente no está visitado y si existen vuelos hacia él entre los días
-                // indicados por la lista en el caso de que se quiera partir desde el aeropuerto
-                // orígen; sino que simplemente existan vuelos si no se parte desde el orígen.
-                if (!next.visited() && ((isOrigin && current.flightExistsTo(next, days)) || (
-                    !isOrigin && current.flightExistsTo(next)))) {
-                    WeightedTicket wTicket = weighter.minTicket(current, next);
-                    double nextCurrWeight = pq.getPriority(next);
-                    double acumWeight = minWeight + wTicket.weight();
-
-                    if (acumWeight < nextCurrWeight) {
-                        next.setIncident(wTicket.ticket());
-                        pq.decreasePriority(next, acumWeight);
-                    }
-                }
+            Ticket incident = ctx.getIncident(current);
+            for (int e = graph.firstEdge(current); e < graph.endEdge(current); e++) {
+                int next = graph.getTarget(e);
+                if (ctx.visited(next))
+                    continue;
+                WeightedTicket wTicket = weighter.minTicket(graph, e, incident);
+                relax(ctx, bound, next, minWeight + wTicket.weight(), wTicket.ticket());
             }
-            // Si está en el aeropuerto del origen tiene que ciclar una sola vez, y devuelve null.
-            if (isOrigin)
-                return null;
         }
         return null;
     }
 
-    /**
-     * Encola los aeropuertos
-     * @param airports
-     * @return BinaryMinHeap con los aeropuertos
-     */
-    private static BinaryMinHeap<Airport> queueAirports (SimpleMap<String, Airport> airports) {
-        int size = airports.size();
-
-        BinaryMinHeap<Airport> heap = new BinaryMinHeap<>(size);
-
-        Iterator<Airport> iter = airports.valueIterator();
-
-        while (iter.hasNext()) {
-            heap.enqueue(iter.next(), Double.POSITIVE_INFINITY);
-        }
-
-        return heap;
-    }
-
     /**
      * Reconstruye un camino a partir del ultimo aeropuerto visitado
+     * @param ctx estado de la busqueda con los tickets incidentes
      * @param last ultimo <tt>Airport</tt> visitado
      * @return Lista de tickets ordenados.
      */
-    private static List<Ticket> buildList (Airport last) {
+    static List<Ticket> buildList (SearchContext ctx, Airport last) {
         LinkedList<Ticket> list = new LinkedList<>();
 
         Airport curr = last;
         Ticket t;
-        while ((t = curr.getIncident()) != null) {
+        while ((t = ctx.getIncident(curr.getIndex())) != null) {
             list.addFirst(t);
             curr = t.getOrigin();
         }
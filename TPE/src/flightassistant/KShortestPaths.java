@@ -0,0 +1,242 @@
+package flightassistant;
+
+import structures.BinaryMinHeap;
+import structures.IndexedMinHeap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Los <i>k</i> caminos sin ciclos de menor peso entre dos aeropuertos (algoritmo de Yen) para
+ * un {@link StaticWeighter}. Cada camino alternativo se obtiene desviandose de uno ya
+ * encontrado en alguno de sus aeropuertos; la busqueda del desvio ignora los aeropuertos
+ * anteriores y las aristas ya usadas por otros caminos con el mismo prefijo, marcandolos en el
+ * {@link SearchContext} en lugar de modificar el grafo.
+ * <p>
+ * Las distancias de todos los aeropuertos al destino se calculan una unica vez, con una
+ * busqueda hacia atras, y se reutilizan como cota exacta de A* en todas las busquedas de
+ * desvios, que asi recorren poco mas que el camino que encuentran.
+ * @see InfinityDijkstra#minPath
+ */
+public class KShortestPaths {
+
+    /** Tamaño inicial de la cola de candidatos, que crece si hace falta */
+    private static final int CANDIDATES_CAPACITY = 16;
+
+    private SearchContext ctx;
+    private FlightGraph graph;
+    private StaticWeighter weighter;
+    private StaticWeighter originWeighter;
+    private int source;
+    private int target;
+    private LowerBound bound;
+
+    private KShortestPaths (SearchContext ctx, FlightGraph graph, Airport origin, Airport dest,
+        StaticWeighter weighter, StaticWeighter originWeighter) {
+        this.ctx = ctx;
+        this.graph = graph;
+        this.weighter = weighter;
+        this.originWeighter = originWeighter == null ? weighter : originWeighter;
+        source = origin.getIndex();
+        target = dest.getIndex();
+
+        // Los tickets del origen nunca pesan menos que el mejor de la arista, asi que las
+        // distancias con el peso base siguen siendo una cota valida
+        final double[] toTarget = Landmarks.distances(graph, target, weighter, true,
+            new IndexedMinHeap(graph.size()));
+        bound = new LowerBound() {
+            @Override public double estimate (int node) {
+                return toTarget[node];
+            }
+        };
+    }
+
+    /**
+     * Devuelve hasta <i>k</i> caminos sin ciclos entre dos aeropuertos, ordenados por peso
+     * @param ctx estado de las busquedas, se reinicia en cada una
+     * @param graph foto del grafo sobre la que se busca
+     * @param origin <tt>Airport</tt> origen
+     * @param dest <tt>Airport</tt> destino
+     * @param weighter elige la mejor opcion de ticket
+     * @param originWeighter elige la mejor opcion de ticket si es el aeropuerto de origen,
+     * null si se usa <i>weighter</i>
+     * @param k cantidad de caminos pedidos
+     * @return lista vacia si no hay camino
+     */
+    public static List<List<Ticket>> find (SearchContext ctx, FlightGraph graph, Airport origin,
+        Airport dest, StaticWeighter weighter, StaticWeighter originWeighter, int k) {
+        if (k < 1)
+            throw new IllegalArgumentException("Cantidad de caminos invalida");
+        return new KShortestPaths(ctx, graph, origin, dest, weighter, originWeighter).find(k);
+    }
+
+    private List<List<Ticket>> find (int k) {
+        List<Path> accepted = new ArrayList<>();
+        List<Path> candidates = new ArrayList<>();
+        BinaryMinHeap<Path> queue = new BinaryMinHeap<>(CANDIDATES_CAPACITY);
+
+        Path first = spur(new Path(source), new int[0]);
+        if (first != null)
+            accepted.add(first);
+
+        while (!accepted.isEmpty() && accepted.size() < k) {
+            Path last = accepted.get(accepted.size() - 1);
+            for (int i = 0; i < last.length(); i++) {
+                Path root = last.prefix(i);
+
+                // Aristas que salen del aeropuerto de desvio en caminos con la misma raiz
+                int[] banned = new int[accepted.size()];
+                int count = 0;
+                for (Path path : accepted)
+                    if (path.length() > i && path.startsWith(root))
+                        banned[count++] = path.edges[i];
+
+                Path candidate = spur(root, Arrays.copyOf(banned, count));
+                if (candidate != null && !contains(candidates, candidate)
+                    && !contains(accepted, candidate)) {
+                    candidates.add(candidate);
+                    queue.enqueue(candidate, candidate.weight);
+                }
+            }
+            if (queue.isEmpty())
+                break;
+            accepted.add(queue.dequeue());
+        }
+
+        List<List<Ticket>> result = new ArrayList<>(accepted.size());
+        for (Path path : accepted)
+            result.add(path.tickets());
+        return result;
+    }
+
+    /**
+     * Busca el mejor camino que empieza con <i>root</i> y luego no pasa por sus aeropuertos
+     * @param root camino hasta el aeropuerto de desvio
+     * @param banned aristas que no se pueden usar al salir del aeropuerto de desvio
+     * @return el camino completo, o null si no hay
+     */
+    private Path spur (Path root, int[] banned) {
+        int spurNode = root.last();
+        ctx.reset(graph.size());
+        for (int i = 0; i < root.length(); i++)
+            ctx.visit(root.nodes[i]);
+        InfinityDijkstra.relax(ctx, bound, spurNode, 0, null);
+
+        IndexedMinHeap pq = ctx.getQueue();
+        while (!pq.isEmpty()) {
+            int current = pq.dequeueId();
+            double minWeight = ctx.getDistance(current);
+            ctx.visit(current);
+            if (current == target)
+                return root.append(this, current);
+
+            StaticWeighter w = current == source ? originWeighter : weighter;
+            for (int e = graph.firstEdge(current); e < graph.endEdge(current); e++) {
+                int next = graph.getTarget(e);
+                if (ctx.visited(next) || (current == spurNode && isBanned(banned, e)))
+                    continue;
+                Ticket ticket = w.edgeTicket(graph, e);
+                if (ticket != null)
+                    InfinityDijkstra.relax(ctx, bound, next, minWeight + w.weight(ticket), ticket);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBanned (int[] banned, int edge) {
+        for (int e : banned)
+            if (e == edge)
+                return true;
+        return false;
+    }
+
+    private static boolean contains (List<Path> paths, Path path) {
+        for (Path other : paths)
+            if (Arrays.equals(other.nodes, path.nodes))
+                return true;
+        return false;
+    }
+
+    /**
+     * Devuelve la arista que va de <i>from</i> a <i>to</i>
+     */
+    private int edgeTo (int from, int to) {
+        for (int e = graph.firstEdge(from); e < graph.endEdge(from); e++)
+            if (graph.getTarget(e) == to)
+                return e;
+        throw new IllegalStateException("No hay arista");
+    }
+
+    /**
+     * Camino desde el origen, como secuencia de aeropuertos, aristas y tickets
+     */
+    private static class Path {
+        private int[] nodes;
+        private int[] edges;
+        private Ticket[] tickets;
+        private double weight;
+
+        private Path (int source) {
+            this(new int[] {source}, new int[0], new Ticket[0], 0);
+        }
+
+        private Path (int[] nodes, int[] edges, Ticket[] tickets, double weight) {
+            this.nodes = nodes;
+            this.edges = edges;
+            this.tickets = tickets;
+            this.weight = weight;
+        }
+
+        private int length () {
+            return edges.length;
+        }
+
+        private int last () {
+            return nodes[nodes.length - 1];
+        }
+
+        /**
+         * Los primeros <i>length</i> tramos del camino
+         */
+        private Path prefix (int length) {
+            return new Path(Arrays.copyOf(nodes, length + 1), Arrays.copyOf(edges, length),
+                Arrays.copyOf(tickets, length), 0);
+        }
+
+        private boolean startsWith (Path root) {
+            for (int i = 0; i < root.nodes.length; i++)
+                if (nodes[i] != root.nodes[i])
+                    return false;
+            return true;
+        }
+
+        /**
+         * Agrega al camino el tramo encontrado por la ultima busqueda hasta <i>last</i>
+         */
+        private Path append (KShortestPaths search, int last) {
+            Airport lastAirport = search.graph.getAirport(last);
+            List<Ticket> spur = InfinityDijkstra.buildList(search.ctx, lastAirport);
+            int length = length() + spur.size();
+            int[] newNodes = Arrays.copyOf(nodes, length + 1);
+            int[] newEdges = Arrays.copyOf(edges, length);
+            Ticket[] newTickets = Arrays.copyOf(tickets, length);
+            int i = length();
+            for (Ticket ticket : spur) {
+                newTickets[i] = ticket;
+                newNodes[i + 1] = ticket.getDestination().getIndex();
+                newEdges[i] = search.edgeTo(newNodes[i], newNodes[i + 1]);
+                i++;
+            }
+            double newWeight = 0;
+            for (Ticket ticket : newTickets)
+                newWeight += search.weighter.weight(ticket);
+            return new Path(newNodes, newEdges, newTickets, newWeight);
+        }
+
+        private List<Ticket> tickets () {
+            return new LinkedList<>(Arrays.asList(tickets));
+        }
+    }
+}
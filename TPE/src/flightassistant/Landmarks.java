@@ -0,0 +1,204 @@
+package flightassistant;
+
+import structures.IndexedMinHeap;
+
+import java.util.Arrays;
+
+/**
+ * Preprocesamiento ALT (A*, landmarks y desigualdad triangular) sobre una {@link FlightGraph}.
+ * Se eligen <i>k</i> aeropuertos de referencia (landmarks) y para cada uno se guardan las
+ * distancias desde y hacia todos los demas aeropuertos, por precio y por tiempo de vuelo.
+ * <p>
+ * Para cualquier landmark <i>L</i> vale <tt>d(v, t) &gt;= d(v, L) - d(t, L)</tt> y
+ * <tt>d(v, t) &gt;= d(L, t) - d(L, v)</tt>, por lo que el maximo de esas diferencias es una
+ * cota inferior consistente del peso restante hasta el destino <i>t</i>.
+ * <p>
+ * Las tablas siguen siendo validas si despues se eliminan vuelos, porque las distancias del
+ * grafo resultante solo pueden crecer. Al agregar vuelos o aeropuertos hay que recalcularlas.
+ * @see LowerBound
+ */
+public class Landmarks {
+
+    /** Margen para que los redondeos de las restas no vuelvan inadmisible a la cota */
+    private static final double BOUND_SAFETY = 1 - 1e-9;
+
+    private int[] landmarks;
+    private Table price;
+    private Table airtime;
+
+    /**
+     * Elige los landmarks y calcula sus tablas de distancias. Es costoso: hace cuatro busquedas
+     * a todos los nodos por cada landmark.
+     * @param graph grafo sobre el que se calculan las distancias
+     * @param count cantidad de landmarks, se usan menos si el grafo tiene menos aeropuertos con
+     * vuelos
+     */
+    public Landmarks (FlightGraph graph, int count) {
+        if (count < 1)
+            throw new IllegalArgumentException("Cantidad de landmarks invalida");
+        int n = graph.size();
+        count = Math.min(count, n);
+        landmarks = new int[count];
+        price = new Table(count);
+        airtime = new Table(count);
+
+        IndexedMinHeap pq = new IndexedMinHeap(n);
+        // Distancia de cada nodo al landmark mas cercano. Los lugares libres y los aeropuertos
+        // sin vuelos empiezan en 0 para no elegirlos nunca: darian cotas nulas en todo el grafo.
+        double[] closest = new double[n];
+        for (int v = 0; v < n; v++)
+            closest[v] = hasEdges(graph, v) ? Double.POSITIVE_INFINITY : 0;
+        // Seleccion por el mas lejano: el primero es el mas lejano a un nodo arbitrario
+        int next = farthest(closest, closest);
+        if (next >= 0)
+            next = farthest(distances(graph, next, AirtimeWeighter.WEIGHTER, false, pq), closest);
+        int chosen = 0;
+        while (chosen < count && next >= 0) {
+            landmarks[chosen] = next;
+            price.from[chosen] = distances(graph, next, PriceWeighter.WEIGHTER, false, pq);
+            price.to[chosen] = distances(graph, next, PriceWeighter.WEIGHTER, true, pq);
+            airtime.from[chosen] = distances(graph, next, AirtimeWeighter.WEIGHTER, false, pq);
+            airtime.to[chosen] = distances(graph, next, AirtimeWeighter.WEIGHTER, true, pq);
+            for (int v = 0; v < n; v++)
+                closest[v] = Math.min(closest[v],
+                    airtime.from[chosen][v] + airtime.to[chosen][v]);
+            chosen++;
+            next = farthest(closest, closest);
+        }
+        if (chosen < count) {
+            landmarks = Arrays.copyOf(landmarks, chosen);
+            price.truncate(chosen);
+            airtime.truncate(chosen);
+        }
+    }
+
+    private static boolean hasEdges (FlightGraph graph, int v) {
+        return graph.firstEdge(v) < graph.endEdge(v)
+            || graph.firstReverseEdge(v) < graph.endReverseEdge(v);
+    }
+
+    /**
+     * Devuelve el nodo mas lejano segun <i>distance</i> entre los candidatos. Los nodos
+     * inalcanzables se prefieren, para cubrir todas las componentes del grafo.
+     * @param closest distancia al landmark mas cercano, 0 para los landmarks ya elegidos y los
+     * nodos que no pueden serlo
+     * @return el nodo elegido, o -1 si no quedan candidatos
+     */
+    private static int farthest (double[] distance, double[] closest) {
+        int best = -1;
+        double bestDistance = -1;
+        for (int v = 0; v < distance.length; v++) {
+            if (closest[v] > 0 && distance[v] > bestDistance) {
+                best = v;
+                bestDistance = distance[v];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Dijkstra desde <i>source</i> a todos los nodos con el peso base del criterio
+     * @param backward si es true se recorren las aristas en sentido inverso, obteniendo la
+     * distancia de cada nodo hacia <i>source</i>
+     * @param pq cola auxiliar con capacidad para todos los nodos
+     */
+    static double[] distances (FlightGraph graph, int source, StaticWeighter weighter,
+        boolean backward, IndexedMinHeap pq) {
+        double[] distance = new double[graph.size()];
+        for (int v = 0; v < distance.length; v++)
+            distance[v] = Double.POSITIVE_INFINITY;
+        pq.clear();
+        distance[source] = 0;
+        pq.enqueue(source, 0);
+
+        while (!pq.isEmpty()) {
+            int current = pq.dequeueId();
+            int first = backward ? graph.firstReverseEdge(current) : graph.firstEdge(current);
+            int end = backward ? graph.endReverseEdge(current) : graph.endEdge(current);
+            for (int i = first; i < end; i++) {
+                int e = backward ? graph.getReverseEdge(i) : i;
+                int next = backward ? graph.getSource(e) : graph.getTarget(e);
+                double weight = distance[current] + weighter.weight(weighter.edgeTicket(graph, e));
+                if (weight < distance[next]) {
+                    if (Double.isInfinite(distance[next]))
+                        pq.enqueue(next, weight);
+                    else
+                        pq.decreasePriority(next, weight);
+                    distance[next] = weight;
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Cantidad de landmarks elegidos
+     */
+    public int size () {
+        return landmarks.length;
+    }
+
+    /**
+     * Devuelve los ids de los aeropuertos elegidos como landmarks
+     */
+    public int[] getLandmarks () {
+        return landmarks.clone();
+    }
+
+    /**
+     * Cota inferior del precio restante hasta <i>target</i>
+     */
+    public LowerBound priceBound (Airport target) {
+        return price.boundTo(target.getIndex());
+    }
+
+    /**
+     * Cota inferior del tiempo de vuelo restante hasta <i>target</i>. Tambien acota el tiempo
+     * total, que suma esperas no negativas al tiempo de vuelo.
+     */
+    public LowerBound airtimeBound (Airport target) {
+        return airtime.boundTo(target.getIndex());
+    }
+
+    /**
+     * Distancias desde (<i>from</i>) y hacia (<i>to</i>) cada landmark, indexadas por
+     * landmark y por nodo
+     */
+    private static class Table {
+        private double[][] from;
+        private double[][] to;
+
+        private Table (int count) {
+            from = new double[count][];
+            to = new double[count][];
+        }
+
+        private void truncate (int count) {
+            from = Arrays.copyOf(from, count);
+            to = Arrays.copyOf(to, count);
+        }
+
+        private LowerBound boundTo (final int target) {
+            return new LowerBound() {
+                @Override public double estimate (int node) {
+                    double best = 0;
+                    for (int i = 0; i < from.length; i++) {
+                        double toTarget = to[i][target];
+                        double fromTarget = from[i][target];
+                        // Si el destino llega al landmark pero el nodo no (o el landmark llega
+                        // al nodo pero no al destino) el destino es inalcanzable desde el nodo
+                        if (Double.isInfinite(to[i][node]) && !Double.isInfinite(toTarget))
+                            return Double.POSITIVE_INFINITY;
+                        if (Double.isInfinite(fromTarget) && !Double.isInfinite(from[i][node]))
+                            return Double.POSITIVE_INFINITY;
+                        if (!Double.isInfinite(toTarget))
+                            best = Math.max(best, to[i][node] - toTarget);
+                        if (!Double.isInfinite(fromTarget) && !Double.isInfinite(from[i][node]))
+                            best = Math.max(best, fromTarget - from[i][node]);
+                    }
+                    return best * BOUND_SAFETY;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package flightassistant;
+
+/**
+ * Cota inferior del peso que falta para llegar desde un nodo hasta el destino de una
+ * busqueda. Para que A* devuelva el mismo resultado que Dijkstra la cota debe ser admisible
+ * (nunca mayor al peso real) y consistente (no decrecer mas que el peso de cada arista).
+ * @see InfinityDijkstra
+ */
+public interface LowerBound {
+
+    /**
+     * Devuelve la cota para el nodo con el id dado
+     */
+    double estimate (int node);
+}
@@ -0,0 +1,20 @@
+package flightassistant;
+
+/**
+ * {@link LowerBound} que combina otras dos quedandose con la mayor. El maximo de cotas
+ * admisibles y consistentes tambien lo es.
+ */
+public class MaxBound implements LowerBound {
+
+    private LowerBound first;
+    private LowerBound second;
+
+    public MaxBound (LowerBound first, LowerBound second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override public double estimate (int node) {
+        return Math.max(first.estimate(node), second.estimate(node));
+    }
+}
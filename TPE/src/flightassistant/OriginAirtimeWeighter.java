@@ -10,21 +10,37 @@ import java.util.List;
  * @see WeightedFlight
  * @see Day
  */
-public class OriginAirtimeWeighter implements Weighter {
+public class OriginAirtimeWeighter implements StaticWeighter {
     private List<Day> days;
 
     public OriginAirtimeWeighter (List<Day> days) {
         this.days = days;
     }
 
-    @Override public WeightedTicket minTicket (Airport from, Airport to) {
+    @Override public WeightedTicket minTicket (FlightGraph graph, int edge, Ticket incident) {
+        Ticket quickest = edgeTicket(graph, edge);
+        return new WeightedTicket(quickest, quickest.getDuration().getMinutes());
+    }
+
+    @Override public double weight (Ticket ticket) {
+        return ticket.getDuration().getMinutes();
+    }
+
+    @Override public Ticket edgeTicket (FlightGraph graph, int edge) {
         Ticket quickest = null;
         for (Day day : days) {
-            Ticket aux = from.getQuickestTo(to, day); // devuelve null si no hay vuelos ese día
+            Ticket aux = graph.getQuickest(edge, day);
             if (quickest == null || (aux != null && aux.isQuickerThan(quickest)))
                 quickest = aux;
         }
-        return new WeightedTicket(quickest, quickest.getDuration().getMinutes());
+        return quickest;
+    }
+
+    @Override public double minWeightPerKm (FlightGraph graph) {
+        return graph.getMinAirtimePerKm();
     }
 
+    @Override public LowerBound landmarkBound (Landmarks landmarks, Airport target) {
+        return landmarks.airtimeBound(target);
+    }
 }
@@ -10,20 +10,37 @@ import java.util.List;
  * @see WeightedFlight
  * @see Day
  */
-public class OriginPriceWeighter implements Weighter {
+public class OriginPriceWeighter implements StaticWeighter {
     private List<Day> days;
 
     public OriginPriceWeighter (List<Day> days) {
         this.days = days;
     }
 
-    @Override public WeightedTicket minTicket (Airport from, Airport to) {
+    @Override public WeightedTicket minTicket (FlightGraph graph, int edge, Ticket incident) {
+        Ticket cheapest = edgeTicket(graph, edge);
+        return new WeightedTicket(cheapest, cheapest.getPrice());
+    }
+
+    @Override public double weight (Ticket ticket) {
+        return ticket.getPrice();
+    }
+
+    @Override public Ticket edgeTicket (FlightGraph graph, int edge) {
         Ticket cheapest = null;
         for (Day day : days) {
-            Ticket aux = from.getCheapestTo(to, day);
+            Ticket aux = graph.getCheapest(edge, day);
             if (cheapest == null || (aux != null && aux.isCheaperThan(cheapest)))
                 cheapest = aux;
         }
-        return new WeightedTicket(cheapest, cheapest.getPrice());
+        return cheapest;
+    }
+
+    @Override public double minWeightPerKm (FlightGraph graph) {
+        return graph.getMinPricePerKm();
+    }
+
+    @Override public LowerBound landmarkBound (Landmarks landmarks, Airport target) {
+        return landmarks.priceBound(target);
     }
 }
@@ -0,0 +1,236 @@
+package flightassistant;
+
+import structures.BinaryMinHeap;
+import utils.Day;
+import utils.TimeConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Busqueda multicriterio por etiquetas (label-setting). Cada etiqueta es un camino parcial
+ * con el valor acumulado de cada criterio ({@link StaticWeighter}) y, si se considera el
+ * tiempo total, el momento de salida del origen y el de llegada. Una etiqueta domina a otra
+ * en el mismo aeropuerto si no es peor en ningun criterio, sale del origen mas tarde y llega
+ * antes; las etiquetas dominadas se descartan.
+ * <p>
+ * Las etiquetas se procesan en orden de la suma de sus criterios, por lo que una etiqueta
+ * procesada no puede ser dominada por otra posterior. Cada aeropuerto guarda
+ * <i>bucketSize</i> etiquetas procesadas para acotar la memoria; una vez lleno solo acepta las
+ * que mejoran el mejor valor de algun criterio en el aeropuerto. Asi el resultado puede no
+ * incluir todo el conjunto de Pareto, pero siempre incluye sus extremos: el camino minimo de
+ * cada {@link StaticWeighter}, ya que sus prefijos son minimos en cada aeropuerto.
+ * @see FlightAssistant#findParetoRoutes(String, String, List, List, boolean)
+ */
+public class ParetoSearch {
+
+    private static final int WEEK = TimeConstants.MINUTES_PER_WEEK;
+    private static final int INITIAL_QUEUE_CAPACITY = 64;
+
+    private FlightGraph graph;
+    private StaticWeighter[] criteria;
+    private boolean totalTime;
+    private int bucketSize;
+    private int source;
+    private int target;
+
+    /** Etiquetas procesadas de cada aeropuerto */
+    private List<List<Label>> buckets;
+
+    /**
+     * Mejor valor de cada criterio, y del tiempo total si se considera, entre las etiquetas
+     * procesadas de cada aeropuerto
+     */
+    private double[][] best;
+
+    private ParetoSearch (FlightGraph graph, Airport origin, Airport dest,
+        List<StaticWeighter> criteria, boolean totalTime, int bucketSize) {
+        this.graph = graph;
+        this.criteria = criteria.toArray(new StaticWeighter[criteria.size()]);
+        this.totalTime = totalTime;
+        this.bucketSize = bucketSize;
+        source = origin.getIndex();
+        target = dest.getIndex();
+        buckets = new ArrayList<>(graph.size());
+        for (int v = 0; v < graph.size(); v++)
+            buckets.add(new ArrayList<Label>());
+        best = new double[graph.size()][];
+    }
+
+    /**
+     * Devuelve los caminos no dominados entre dos aeropuertos
+     * @param graph foto del grafo sobre la que se busca
+     * @param origin <tt>Airport</tt> origen
+     * @param dest <tt>Airport</tt> destino
+     * @param days dias de salida posibles, todos si esta vacia
+     * @param criteria criterios a minimizar, con el peso de cada ticket
+     * @param totalTime si ademas se minimiza el tiempo total
+     * @param bucketSize cantidad maxima de etiquetas por aeropuerto
+     * @return caminos no dominados, ordenados por la suma de sus criterios
+     */
+    public static List<List<Ticket>> search (FlightGraph graph, Airport origin, Airport dest,
+        List<Day> days, List<StaticWeighter> criteria, boolean totalTime, int bucketSize) {
+        if (criteria.isEmpty() && !totalTime)
+            throw new IllegalArgumentException("No hay criterios");
+        if (bucketSize < 1)
+            throw new IllegalArgumentException("Capacidad de etiquetas invalida");
+        return new ParetoSearch(graph, origin, dest, criteria, totalTime, bucketSize).run(days);
+    }
+
+    private List<List<Ticket>> run (List<Day> days) {
+        BinaryMinHeap<Label> pq = new BinaryMinHeap<>(INITIAL_QUEUE_CAPACITY);
+
+        // Primer vuelo: los tickets del origen en los dias pedidos
+        Label start = new Label(source, new double[criteria.length], 0, 0, null, null);
+        Day[] departureDays = days.isEmpty() ? FlightGraph.allDays() : days.toArray(new Day[0]);
+        for (int e = graph.firstEdge(source); e < graph.endEdge(source); e++) {
+            for (Day day : departureDays) {
+                Iterator<Ticket> iter = graph.dayFlights(e, day);
+                while (iter.hasNext()) {
+                    Ticket ticket = iter.next();
+                    int departure = ticket.getDeparture().getMinuteOfWeek();
+                    offer(pq, extend(start, graph.getTarget(e), ticket, departure, departure));
+                }
+            }
+        }
+
+        while (!pq.isEmpty()) {
+            Label label = pq.dequeue();
+            if (!fits(label) || isDominated(label, label.node))
+                continue;
+            add(label);
+            if (label.node == target)
+                continue;
+
+            for (int e = graph.firstEdge(label.node); e < graph.endEdge(label.node); e++) {
+                int next = graph.getTarget(e);
+                if (next == source)
+                    continue;
+                for (Day day : FlightGraph.allDays()) {
+                    Iterator<Ticket> iter = graph.dayFlights(e, day);
+                    while (iter.hasNext()) {
+                        Ticket ticket = iter.next();
+                        int wait = ticket.getDeparture().getMinuteOfWeek() - label.arrival % WEEK;
+                        if (wait < 0)
+                            wait += WEEK;
+                        offer(pq, extend(label, next, ticket, label.start, label.arrival + wait));
+                    }
+                }
+            }
+        }
+        return routes();
+    }
+
+    private Label extend (Label label, int node, Ticket ticket, int start, int departure) {
+        double[] values = label.values.clone();
+        for (int i = 0; i < criteria.length; i++)
+            values[i] += criteria[i].weight(ticket);
+        int arrival = departure + ticket.getDuration().getMinutes();
+        return new Label(node, values, start, arrival, ticket, label);
+    }
+
+    /**
+     * Encola la etiqueta si no esta dominada en su aeropuerto ni por un camino ya encontrado
+     */
+    private void offer (BinaryMinHeap<Label> pq, Label label) {
+        if (!fits(label) || isDominated(label, label.node) || isDominated(label, target))
+            return;
+        double key = 0;
+        for (double value : label.values)
+            key += value;
+        if (totalTime)
+            key += label.arrival - label.start;
+        pq.enqueue(label, key);
+    }
+
+    /**
+     * Indica si hay lugar para la etiqueta en su aeropuerto: si no esta lleno, o si mejora el
+     * mejor valor de algun criterio
+     */
+    private boolean fits (Label label) {
+        if (buckets.get(label.node).size() < bucketSize)
+            return true;
+        double[] nodeBest = best[label.node];
+        for (int i = 0; i < criteria.length; i++)
+            if (label.values[i] < nodeBest[i])
+                return true;
+        return totalTime && label.arrival - label.start < nodeBest[criteria.length];
+    }
+
+    private void add (Label label) {
+        buckets.get(label.node).add(label);
+        double[] nodeBest = best[label.node];
+        if (nodeBest == null) {
+            nodeBest = new double[criteria.length + 1];
+            Arrays.fill(nodeBest, Double.POSITIVE_INFINITY);
+            best[label.node] = nodeBest;
+        }
+        for (int i = 0; i < criteria.length; i++)
+            nodeBest[i] = Math.min(nodeBest[i], label.values[i]);
+        nodeBest[criteria.length] = Math.min(nodeBest[criteria.length],
+            label.arrival - label.start);
+    }
+
+    /**
+     * Indica si alguna etiqueta procesada del nodo domina a la etiqueta o, si el nodo es el
+     * destino, a cualquier camino que la extienda
+     */
+    private boolean isDominated (Label label, int node) {
+        for (Label other : buckets.get(node))
+            if (dominates(other, label, node == target))
+                return true;
+        return false;
+    }
+
+    private boolean dominates (Label label, Label other, boolean atTarget) {
+        for (int i = 0; i < criteria.length; i++)
+            if (label.values[i] > other.values[i])
+                return false;
+        if (!totalTime)
+            return true;
+        // En el destino solo importa el tiempo total; en otro aeropuerto, salir mas tarde y
+        // llegar antes asegura un tiempo total menor para cualquier continuacion
+        if (atTarget)
+            return label.arrival - label.start <= other.arrival - other.start;
+        return label.start >= other.start && label.arrival <= other.arrival;
+    }
+
+    /**
+     * Arma los caminos de las etiquetas del destino, en el orden en que se procesaron
+     */
+    private List<List<Ticket>> routes () {
+        List<List<Ticket>> routes = new ArrayList<>();
+        for (Label label : buckets.get(target)) {
+            LinkedList<Ticket> route = new LinkedList<>();
+            for (Label l = label; l.ticket != null; l = l.parent)
+                route.addFirst(l.ticket);
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    /**
+     * Camino parcial hasta un aeropuerto
+     */
+    private static class Label {
+        private int node;
+        private double[] values;
+        private int start;
+        private int arrival;
+        private Ticket ticket;
+        private Label parent;
+
+        private Label (int node, double[] values, int start, int arrival, Ticket ticket,
+            Label parent) {
+            this.node = node;
+            this.values = values;
+            this.start = start;
+            this.arrival = arrival;
+            this.ticket = ticket;
+            this.parent = parent;
+        }
+    }
+}
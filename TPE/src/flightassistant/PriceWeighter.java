@@ -6,14 +6,30 @@ package flightassistant;
  * @see InfinityDijkstra
  * @see WeightedFlight
  */
-public class PriceWeighter implements Weighter {
-    public static final Weighter WEIGHTER = new PriceWeighter();
+public class PriceWeighter implements StaticWeighter {
+    public static final StaticWeighter WEIGHTER = new PriceWeighter();
 
     private PriceWeighter () {
     }
 
-    @Override public WeightedTicket minTicket (Airport from, Airport to) {
-        Ticket cheapest = from.getCheapestTo(to);
+    @Override public WeightedTicket minTicket (FlightGraph graph, int edge, Ticket incident) {
+        Ticket cheapest = graph.getCheapest(edge);
         return new WeightedTicket(cheapest, cheapest.getPrice());
     }
+
+    @Override public double weight (Ticket ticket) {
+        return ticket.getPrice();
+    }
+
+    @Override public Ticket edgeTicket (FlightGraph graph, int edge) {
+        return graph.getCheapest(edge);
+    }
+
+    @Override public double minWeightPerKm (FlightGraph graph) {
+        return graph.getMinPricePerKm();
+    }
+
+    @Override public LowerBound landmarkBound (Landmarks landmarks, Airport target) {
+        return landmarks.priceBound(target);
+    }
 }
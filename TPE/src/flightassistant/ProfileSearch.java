@@ -0,0 +1,209 @@
+package flightassistant;
+
+import utils.TimeConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Calcula el {@link TotalTimeProfile} entre dos aeropuertos con un unico barrido hacia atras
+ * del {@link Timetable} (profile Connection Scan). Cada aeropuerto guarda las salidas utiles
+ * hacia el destino, como pares (salida, llegada al destino) en los que una salida mas temprana
+ * siempre llega antes. Recorriendo las conexiones de la mas tardia a la mas temprana, la
+ * llegada de una conexion es la de la primera salida util de su aeropuerto de llegada.
+ * <p>
+ * Como la semana es ciclica se barren semanas hacia atras hasta que los perfiles de todos los
+ * aeropuertos se repiten, corridos una semana, durante las semanas de las que puede depender
+ * la siguiente. A partir de ahi el perfil ya no cambia y es el de cualquier semana.
+ * <p>
+ * Igual que en {@link InfinityDijkstra#minPathTotalTime} el origen solo se usa como salida del
+ * primer vuelo.
+ */
+public class ProfileSearch {
+
+    private static final int WEEK = TimeConstants.MINUTES_PER_WEEK;
+    private static final int INITIAL_CAPACITY = 4;
+
+    private Timetable timetable;
+    private int source;
+    private int target;
+
+    /** Salidas utiles de cada aeropuerto, con salida decreciente */
+    private int[][] departures;
+    private int[][] arrivals;
+    private int[][] connections;
+    private int[] sizes;
+
+    private ProfileSearch (FlightGraph graph, Airport origin, Airport dest) {
+        timetable = graph.getTimetable();
+        source = origin.getIndex();
+        target = dest.getIndex();
+        int n = graph.size();
+        departures = new int[n][INITIAL_CAPACITY];
+        arrivals = new int[n][INITIAL_CAPACITY];
+        connections = new int[n][INITIAL_CAPACITY];
+        sizes = new int[n];
+    }
+
+    /**
+     * Calcula el perfil de viaje entre dos aeropuertos
+     * @param graph foto del grafo sobre la que se busca
+     * @param origin <tt>Airport</tt> origen
+     * @param dest <tt>Airport</tt> destino
+     */
+    public static TotalTimeProfile profile (FlightGraph graph, Airport origin, Airport dest) {
+        return new ProfileSearch(graph, origin, dest).sweep();
+    }
+
+    private TotalTimeProfile sweep () {
+        int maxDuration = 0;
+        for (int c = 0; c < timetable.size(); c++)
+            maxDuration = Math.max(maxDuration, timetable.getDuration(c));
+        // Una semana depende de las salidas de las semanas que alcanzan sus llegadas
+        int window = 2 + maxDuration / WEEK;
+
+        int n = sizes.length;
+        int[] weekEnd = new int[n];     // cantidad de salidas antes de barrer la semana
+        int[] previousWeekEnd = new int[n];
+        int stableWeeks = 0;
+        int offset = 0;
+        for (int week = 0; stableWeeks < window; week++, offset -= WEEK) {
+            int[] aux = previousWeekEnd;
+            previousWeekEnd = weekEnd;
+            weekEnd = aux;
+            System.arraycopy(sizes, 0, weekEnd, 0, n);
+
+            for (int c = timetable.size() - 1; c >= 0; c--)
+                scan(c, offset);
+
+            if (week > 0 && repeats(previousWeekEnd, weekEnd))
+                stableWeeks++;
+            else
+                stableWeeks = 0;
+        }
+        return buildProfile(weekEnd, offset + WEEK);
+    }
+
+    /**
+     * Procesa una conexion que sale <i>offset</i> minutos despues de su horario semanal
+     */
+    private void scan (int c, int offset) {
+        int from = timetable.getSource(c);
+        int to = timetable.getTarget(c);
+        if (from == target || to == source)
+            return;
+        int departure = timetable.getDeparture(c) + offset;
+        int arrival = departure + timetable.getDuration(c);
+        if (to != target) {
+            int next = firstFrom(to, arrival);
+            if (next < 0)
+                return;
+            arrival = arrivals[to][next];
+        }
+
+        int size = sizes[from];
+        // Las salidas del origen se guardan todas, para poder filtrarlas por dia
+        if (from != source && size > 0 && arrivals[from][size - 1] <= arrival)
+            return;
+        if (from != source && size > 0 && departures[from][size - 1] == departure)
+            size--;
+        else
+            ensureCapacity(from, size + 1);
+        departures[from][size] = departure;
+        arrivals[from][size] = arrival;
+        connections[from][size] = c;
+        sizes[from] = size + 1;
+    }
+
+    /**
+     * Devuelve la posicion de la primera salida del nodo en el minuto dado o despues, o -1
+     * si no hay. Como las salidas estan en orden decreciente es la ultima con salida mayor o
+     * igual.
+     */
+    private int firstFrom (int node, int minute) {
+        int low = 0;
+        int high = sizes[node];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures[node][mid] >= minute)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low - 1;
+    }
+
+    private void ensureCapacity (int node, int capacity) {
+        if (capacity > departures[node].length) {
+            int length = Math.max(capacity, departures[node].length * 2);
+            departures[node] = Arrays.copyOf(departures[node], length);
+            arrivals[node] = Arrays.copyOf(arrivals[node], length);
+            connections[node] = Arrays.copyOf(connections[node], length);
+        }
+    }
+
+    /**
+     * Indica si las salidas agregadas en la ultima semana son las de la semana anterior
+     * corridas una semana
+     * @param previousWeekEnd cantidad de salidas de cada nodo antes de barrer la semana anterior
+     * @param weekEnd cantidad de salidas de cada nodo antes de barrer la ultima semana
+     */
+    private boolean repeats (int[] previousWeekEnd, int[] weekEnd) {
+        for (int v = 0; v < sizes.length; v++) {
+            int count = sizes[v] - weekEnd[v];
+            if (count != weekEnd[v] - previousWeekEnd[v])
+                return false;
+            for (int i = 0; i < count; i++) {
+                int now = weekEnd[v] + i;
+                int before = previousWeekEnd[v] + i;
+                if (connections[v][now] != connections[v][before]
+                    || departures[v][now] + WEEK != departures[v][before]
+                    || arrivals[v][now] + WEEK != arrivals[v][before])
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Arma el perfil con las salidas del origen de la ultima semana barrida
+     * @param weekEnd cantidad de salidas de cada nodo antes de barrer esa semana
+     * @param offset corrimiento de esa semana
+     */
+    private TotalTimeProfile buildProfile (int[] weekEnd, int offset) {
+        int count = sizes[source] - weekEnd[source];
+        int[] profileDepartures = new int[count];
+        int[] totalTimes = new int[count];
+        List<List<Ticket>> routes = new ArrayList<>(count);
+        // Las salidas se guardaron en orden decreciente
+        for (int i = 0; i < count; i++) {
+            int entry = sizes[source] - 1 - i;
+            profileDepartures[i] = departures[source][entry] - offset;
+            totalTimes[i] = arrivals[source][entry] - departures[source][entry];
+            routes.add(buildRoute(connections[source][entry], departures[source][entry]));
+        }
+        return new TotalTimeProfile(profileDepartures, totalTimes, routes);
+    }
+
+    /**
+     * Reconstruye el camino siguiendo, desde cada llegada, la primera salida util
+     * @param first conexion del primer vuelo
+     * @param departure salida del primer vuelo, sin reiniciar la semana
+     */
+    private List<Ticket> buildRoute (int first, int departure) {
+        List<Ticket> route = new LinkedList<>();
+        int c = first;
+        int arrival = departure + timetable.getDuration(c);
+        route.add(timetable.getTicket(c));
+        while (timetable.getTarget(c) != target) {
+            int node = timetable.getTarget(c);
+            int next = firstFrom(node, arrival);
+            c = connections[node][next];
+            arrival = departures[node][next] + timetable.getDuration(c);
+            route.add(timetable.getTicket(c));
+        }
+        return route;
+    }
+}
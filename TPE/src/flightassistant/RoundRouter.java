@@ -0,0 +1,192 @@
+package flightassistant;
+
+import utils.Day;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Motor de busqueda por rondas (al estilo RAPTOR). La ronda <i>k</i> calcula la llegada mas
+ * temprana a cada aeropuerto usando a lo sumo <i>k</i> vuelos, y solo recorre las aristas que
+ * salen de los aeropuertos que mejoraron en la ronda anterior.
+ * <p>
+ * Como resultado se obtiene el frente de Pareto de (cantidad de vuelos, tiempo total) hacia el
+ * destino: para cada cantidad de vuelos, el camino de menor tiempo total si mejora al de menos
+ * vuelos. El tiempo total se mide como en {@link InfinityDijkstra#minPathTotalTime}.
+ * @see TotalTimeWeighter
+ */
+public class RoundRouter {
+
+    private FlightGraph graph;
+    private int source;
+    private int target;
+    private int maxRounds;
+
+    /** Llegada a cada aeropuerto en cada ronda, en minutos desde la salida del origen */
+    private List<double[]> arrivals = new ArrayList<>();
+
+    /** Ticket con el que se llego a cada aeropuerto en cada ronda */
+    private List<Ticket[]> incidents = new ArrayList<>();
+
+    /** Mejor llegada a cada aeropuerto en cualquier ronda de la salida actual */
+    private double[] best;
+
+    /** Menor tiempo total al destino con a lo sumo <i>k</i> vuelos, para cada <i>k</i> */
+    private double[] bestByLegs;
+
+    /** Camino con el que se obtuvo cada valor de <tt>bestByLegs</tt> */
+    private List<List<Ticket>> routeByLegs;
+
+    private RoundRouter (FlightGraph graph, Airport origin, Airport dest, int maxRounds) {
+        this.graph = graph;
+        this.source = origin.getIndex();
+        this.target = dest.getIndex();
+        this.maxRounds = Math.min(maxRounds, graph.size() - 1);
+        best = new double[graph.size()];
+        bestByLegs = new double[this.maxRounds + 1];
+        Arrays.fill(bestByLegs, Double.POSITIVE_INFINITY);
+        routeByLegs = new ArrayList<>();
+        for (int k = 0; k <= this.maxRounds; k++)
+            routeByLegs.add(null);
+    }
+
+    /**
+     * Devuelve el frente de Pareto de caminos entre dos aeropuertos segun cantidad de vuelos y
+     * tiempo total, saliendo del origen en alguno de los dias dados
+     * @param graph foto del grafo sobre la que se busca
+     * @param origin <tt>Airport</tt> origen
+     * @param dest <tt>Airport</tt> destino
+     * @param days dias de salida posibles, todos si esta vacia
+     * @param maxFlights cantidad maxima de vuelos de cada camino
+     * @return caminos ordenados por cantidad de vuelos creciente y tiempo total decreciente;
+     * lista vacia si no hay camino
+     */
+    public static List<List<Ticket>> paretoRoutes (FlightGraph graph, Airport origin,
+        Airport dest, List<Day> days, int maxFlights) {
+        if (maxFlights < 1)
+            throw new IllegalArgumentException("Cantidad de vuelos invalida");
+
+        RoundRouter router = new RoundRouter(graph, origin, dest, maxFlights);
+        Day[] departureDays = days.isEmpty() ? FlightGraph.allDays() : days.toArray(new Day[0]);
+        for (int e = graph.firstEdge(router.source); e < graph.endEdge(router.source); e++) {
+            for (Day day : departureDays) {
+                Iterator<Ticket> ticketIter = graph.dayFlights(e, day);
+                Ticket prev = null;
+                while (ticketIter.hasNext()) {
+                    Ticket ticket = ticketIter.next();
+                    if (prev == null || !InfinityDijkstra.sameTicketFeatures(ticket, prev)) {
+                        prev = ticket;
+                        router.run(graph.getTarget(e), ticket);
+                    }
+                }
+            }
+        }
+        return router.front();
+    }
+
+    /**
+     * Ejecuta las rondas tomando <i>first</i> como primer vuelo
+     * @param adj aeropuerto al que llega <i>first</i>
+     */
+    private void run (int adj, Ticket first) {
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+        double[] arrival = round(1);
+        arrival[adj] = first.getDuration().getMinutes();
+        incidents.get(1)[adj] = first;
+        best[adj] = arrival[adj];
+        update(1, adj);
+
+        List<Integer> marked = new ArrayList<>();
+        marked.add(adj);
+        for (int k = 2; k <= maxRounds && !marked.isEmpty(); k++) {
+            double[] previous = arrivals.get(k - 1);
+            Ticket[] previousIncident = incidents.get(k - 1);
+            arrival = round(k);
+            Ticket[] incident = incidents.get(k);
+            List<Integer> improved = new ArrayList<>();
+
+            for (int current : marked) {
+                for (int e = graph.firstEdge(current); e < graph.endEdge(current); e++) {
+                    int next = graph.getTarget(e);
+                    if (next == source)
+                        continue;
+                    WeightedTicket wTicket = TotalTimeWeighter.WEIGHTER.minTicket(graph, e,
+                        previousIncident[current]);
+                    double weight = previous[current] + wTicket.weight();
+
+                    // Solo sirve si mejora la llegada al aeropuerto y puede mejorar al destino
+                    if (weight < best[next] && weight < bestByLegs[k]) {
+                        if (Double.isInfinite(arrival[next]))
+                            improved.add(next);
+                        arrival[next] = weight;
+                        incident[next] = wTicket.ticket();
+                        best[next] = weight;
+                    }
+                }
+            }
+            if (!Double.isInfinite(arrival[target]))
+                update(k, target);
+            marked = improved;
+        }
+    }
+
+    /**
+     * Devuelve los arreglos de la ronda <i>k</i>, vacios
+     */
+    private double[] round (int k) {
+        while (arrivals.size() <= k) {
+            arrivals.add(new double[graph.size()]);
+            incidents.add(new Ticket[graph.size()]);
+        }
+        Arrays.fill(arrivals.get(k), Double.POSITIVE_INFINITY);
+        Arrays.fill(incidents.get(k), null);
+        return arrivals.get(k);
+    }
+
+    /**
+     * Registra la llegada al nodo en la ronda <i>k</i> si es el destino y mejora el tiempo con
+     * a lo sumo <i>k</i> vuelos
+     */
+    private void update (int k, int node) {
+        double weight = arrivals.get(k)[node];
+        if (node != target || weight >= bestByLegs[k])
+            return;
+        List<Ticket> route = buildRoute(k);
+        for (int legs = k; legs <= maxRounds && weight < bestByLegs[legs]; legs++) {
+            bestByLegs[legs] = weight;
+            routeByLegs.set(legs, route);
+        }
+    }
+
+    /**
+     * Reconstruye el camino al destino que termina en la ronda <i>k</i>
+     */
+    private List<Ticket> buildRoute (int k) {
+        LinkedList<Ticket> route = new LinkedList<>();
+        int node = target;
+        for (int round = k; round > 0; round--) {
+            Ticket ticket = incidents.get(round)[node];
+            route.addFirst(ticket);
+            node = ticket.getOrigin().getIndex();
+        }
+        return route;
+    }
+
+    /**
+     * Devuelve los caminos que mejoran al de menos vuelos
+     */
+    private List<List<Ticket>> front () {
+        List<List<Ticket>> front = new ArrayList<>();
+        double previous = Double.POSITIVE_INFINITY;
+        for (int k = 1; k <= maxRounds; k++) {
+            if (bestByLegs[k] < previous) {
+                front.add(routeByLegs.get(k));
+                previous = bestByLegs[k];
+            }
+        }
+        return front;
+    }
+}
@@ -1,9 +1,8 @@
 package flightassistant;
 
-import structures.AVLSet;
+import structures.PersistentAVLSet;
 import utils.Day;
 import utils.Day.WeekArray;
-import utils.Moment;
 
 import java.util.Comparator;
 import java.util.Iterator;
@@ -63,11 +62,14 @@ public class Route{
         return containerA.hasFlights() || containerB.hasFlights();
     }
 
-    public HigherIterator iteratorOfHigherFlightsFrom (Airport from, Moment startTime) {
-        if (!flightExistsFrom(from))
-            throw new IllegalArgumentException("This route does not connect " + from);
-        TicketContainer container = selectContainer(from);
-        return container.iteratorOfHigherFlights(startTime);
+    /**
+     * Devuelve los vuelos que salen de un aeropuerto ordenados por minuto de salida dentro de
+     * la semana
+     * @param from aeropuerto de salida
+     * @see DepartureTable
+     */
+    public DepartureTable departuresFrom (Airport from) {
+        return selectContainer(from).getDepartures();
     }
 
     /**
@@ -167,6 +169,10 @@ public class Route{
         return getCheapestFrom(airport, day) != null;
     }
 
+    /**
+     * Devuelve los vuelos que salen del aeropuerto el dia dado, ordenados por horario. El
+     * iterador recorre los vuelos del momento en que se pidio aunque despues cambien.
+     */
     public Iterator<Ticket> dayFlights (Airport from, Day day) {
         TicketContainer container = selectContainer(from);
         return container.weekArray.get(day).iterator();
@@ -175,7 +181,13 @@ public class Route{
     /**
      * Clase que contiene todos los vuelos de un aeropuerto a otro, en una sola dirección.
      * Consta de un {@link WeekArray} con el {@link Ticket} mas barato correspondiente a cada día
-     * de la semana, otro con el mas rápido, y otro con todos los vuelos de cada día.
+     * de la semana, otro con el mas rápido, y otro con todos los vuelos de cada día. Los vuelos
+     * de cada día tambien se ordenan por precio y por tiempo de vuelo, para que el mejor de un
+     * día se actualice sin recorrerlos, y se guardan los mejores de la semana.
+     * Ademas guarda la {@link DepartureTable} de todos los vuelos, que se arma al pedirla y se
+     * descarta con cada cambio.
+     * Los conjuntos son {@link PersistentAVLSet}, por lo que recorrer los vuelos de un dia no se
+     * ve afectado por los cambios que se hagan mientras tanto.
      */
     private static class TicketContainer {
 
@@ -188,24 +200,53 @@ public class Route{
             }
         };
 
+        // Vuelos de un dia ordenados por precio, y a igual precio por horario
+        private static final Comparator<Ticket> priceCmp = new Comparator<Ticket>() {
+            @Override public int compare (Ticket o1, Ticket o2) {
+                int comp = Double.compare(o1.getPrice(), o2.getPrice());
+                return comp == 0 ? ticketCmp.compare(o1, o2) : comp;
+            }
+        };
+
+        // Vuelos de un dia ordenados por tiempo de vuelo, y a igual tiempo por horario
+        private static final Comparator<Ticket> durationCmp = new Comparator<Ticket>() {
+            @Override public int compare (Ticket o1, Ticket o2) {
+                int comp = o1.getDuration().compareTo(o2.getDuration());
+                return comp == 0 ? ticketCmp.compare(o1, o2) : comp;
+            }
+        };
+
         private WeekArray<Ticket> cheapest;
         private WeekArray<Ticket> quickest;
-        private WeekArray<AVLSet<Ticket>> weekArray;
+        private WeekArray<PersistentAVLSet<Ticket>> weekArray;
+        private WeekArray<PersistentAVLSet<Ticket>> byPrice;
+        private WeekArray<PersistentAVLSet<Ticket>> byDuration;
+
+        /** Mas barato y mas rapido de toda la semana, null si no hay vuelos */
+        private Ticket weekCheapest;
+        private Ticket weekQuickest;
+
+        /** Vuelos de la semana ordenados por salida, null si hay que armarla */
+        private volatile DepartureTable departures;
 
         public TicketContainer () {
             cheapest = Day.newWeekArray();
             quickest = Day.newWeekArray();
             weekArray = Day.newWeekArray();
-            weekArray.insert(Day.LU, new AVLSet<Ticket>(ticketCmp));
-            for (Day day = Day.MA; !day.equals(Day.LU); day = day.getNextDay())
-                weekArray.insert(day, new AVLSet<Ticket>(ticketCmp));
+            byPrice = Day.newWeekArray();
+            byDuration = Day.newWeekArray();
+            weekArray.insert(Day.LU, new PersistentAVLSet<Ticket>(ticketCmp));
+            byPrice.insert(Day.LU, new PersistentAVLSet<Ticket>(priceCmp));
+            byDuration.insert(Day.LU, new PersistentAVLSet<Ticket>(durationCmp));
+            for (Day day = Day.MA; !day.equals(Day.LU); day = day.getNextDay()) {
+                weekArray.insert(day, new PersistentAVLSet<Ticket>(ticketCmp));
+                byPrice.insert(day, new PersistentAVLSet<Ticket>(priceCmp));
+                byDuration.insert(day, new PersistentAVLSet<Ticket>(durationCmp));
+            }
         }
 
         private boolean hasFlights () {
-            for (Ticket f : cheapest)
-                if (f != null)
-                    return true;
-            return false;
+            return weekCheapest != null;
         }
 
         /**
@@ -214,13 +255,10 @@ public class Route{
          */
         private void addTicket (Ticket ticket) {
             Day departureDay = ticket.getDeparture().getDay();
-            if (cheapest.get(departureDay) == null || ticket
-                .isCheaperThan(cheapest.get(departureDay)))
-                cheapest.insert(departureDay, ticket);
-            if (quickest.get(departureDay) == null || ticket
-                .isQuickerThan(quickest.get(departureDay)))
-                quickest.insert(departureDay, ticket);
-            weekArray.get(ticket.getDeparture().getDay()).add(ticket);
+            weekArray.get(departureDay).add(ticket);
+            byPrice.get(departureDay).add(ticket);
+            byDuration.get(departureDay).add(ticket);
+            update(departureDay);
         }
 
         /**
@@ -229,43 +267,57 @@ public class Route{
          */
         private void removeTicket (Ticket ticket) {
             Day departureDay = ticket.getDeparture().getDay();
-
             weekArray.get(departureDay).remove(ticket);
-
-            if (ticket.equals(cheapest.get(departureDay))) {
-                cheapest.insert(departureDay, null);
-                recalculateCheapest(departureDay);
-            }
-            if (ticket.equals(quickest.get(departureDay))) {
-                quickest.insert(departureDay, null);
-                recalculateQuickest(departureDay);
-            }
+            byPrice.get(departureDay).remove(ticket);
+            byDuration.get(departureDay).remove(ticket);
+            update(departureDay);
         }
 
         /**
-         * En caso de ser eliminado el ticket con el menor tiempo de vuelo en un dia particular
-         * se busca el de menor tiempo de vuelo entre los tickets restantes de ese mismo dia.
-         * @param <tt>Day<tt> del cual se debe recalcular el mas rápido
+         * Actualiza el mas barato y el mas rapido del dia, que son los primeros de cada orden,
+         * y los de la semana, que son los mejores de los siete dias. Descarta las vistas de
+         * todos los vuelos.
+         * @param day <tt>Day</tt> en el que cambiaron los vuelos
          */
-        private void recalculateQuickest (Day day) {
-            for (Ticket ticket : weekArray.get(day))
-                if (quickest.get(day) == null || ticket.isQuickerThan(quickest.get(day)))
-                    quickest.insert(day, ticket);
+        private void update (Day day) {
+            cheapest.insert(day, byPrice.get(day).first());
+            quickest.insert(day, byDuration.get(day).first());
+
+            weekCheapest = null;
+            for (Ticket ticket : cheapest)
+                if (weekCheapest == null || (ticket != null && ticket.isCheaperThan(weekCheapest)))
+                    weekCheapest = ticket;
+            weekQuickest = null;
+            for (Ticket ticket : quickest)
+                if (weekQuickest == null || (ticket != null && ticket.isQuickerThan(weekQuickest)))
+                    weekQuickest = ticket;
+
+            departures = null;
         }
-        
+
         /**
-         * En caso de ser eliminado el ticket con el menor precio en un dia particular
-         * se busca el de menor precio entre los tickets restantes de ese mismo dia.
-         * @param <tt>Day<tt> del cual se debe recalcular el de menor precio
+         * Devuelve los vuelos de la semana ordenados por salida, armandolos si cambiaron. Como
+         * cada dia ya esta ordenado por horario alcanza con recorrer los dias en orden.
          */
-        private void recalculateCheapest (Day day) {
-            for (Ticket ticket : weekArray.get(day))
-                if (cheapest.get(day) == null || ticket.isCheaperThan(cheapest.get(day)))
-                    cheapest.insert(day, ticket);
+        private DepartureTable getDepartures () {
+            DepartureTable table = departures;
+            if (table == null) {
+                table = new DepartureTable(weekTickets());
+                departures = table;
+            }
+            return table;
         }
 
-        private HigherIterator iteratorOfHigherFlights (Moment startTime) {
-            return new HigherIterator(startTime, weekArray);
+        private Ticket[] weekTickets () {
+            int count = 0;
+            for (PersistentAVLSet<Ticket> set : weekArray)
+                count += set.size();
+            Ticket[] tickets = new Ticket[count];
+            int i = 0;
+            for (PersistentAVLSet<Ticket> set : weekArray)
+                for (Ticket ticket : set)
+                    tickets[i++] = ticket;
+            return tickets;
         }
 
         /**
@@ -291,12 +343,7 @@ public class Route{
          * @return Ticker con el vuelo mas rápido
          */
         public Ticket getQuickest () {
-            Ticket quickestTicket = null;
-            for (Ticket ticket : quickest)
-                if (quickestTicket == null || (ticket != null && ticket
-                    .isQuickerThan(quickestTicket)))
-                    quickestTicket = ticket;
-            return quickestTicket;
+            return weekQuickest;
         }
 
         /**
@@ -304,13 +351,7 @@ public class Route{
          * @return Ticker con el vuelo mas barato
          */
         public Ticket getCheapest () {
-            Ticket cheapestTicket = null;
-            for (Ticket ticket : cheapest)
-                if (cheapestTicket == null || (ticket != null && ticket
-                    .isCheaperThan(cheapestTicket)))
-                    cheapestTicket = ticket;
-            return cheapestTicket;
+            return weekCheapest;
         }
-
     }
 }
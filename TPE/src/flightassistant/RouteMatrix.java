@@ -0,0 +1,140 @@
+package flightassistant;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Matriz de pesos minimos entre un conjunto de origenes y uno de destinos para un
+ * {@link StaticWeighter}. Por cada origen se corre una unica busqueda hasta agotar la cola
+ * ({@link InfinityDijkstra#oneToAll}) que resuelve todos los destinos a la vez; los origenes se
+ * reparten entre varios hilos, cada uno con su propio {@link SearchContext}, que solo leen la
+ * foto del grafo.
+ * <p>
+ * Si se piden los caminos se guarda el arbol de cada origen y se reconstruyen al pedirlos; si
+ * no, solo se guarda la matriz de pesos.
+ */
+public class RouteMatrix {
+
+    private Airport[] origins;
+    private Airport[] destinations;
+    private double[][] weights;
+    private ShortestPathTree[] trees;
+
+    private RouteMatrix (List<Airport> origins, List<Airport> destinations,
+        boolean itineraries) {
+        this.origins = origins.toArray(new Airport[origins.size()]);
+        this.destinations = destinations.toArray(new Airport[destinations.size()]);
+        weights = new double[this.origins.length][];
+        if (itineraries)
+            trees = new ShortestPathTree[this.origins.length];
+    }
+
+    /**
+     * Calcula los pesos minimos entre todos los pares de origen y destino
+     * @param graph foto del grafo sobre la que se busca
+     * @param origins aeropuertos de origen, filas de la matriz
+     * @param destinations aeropuertos de destino, columnas de la matriz
+     * @param weighter elige la mejor opcion de ticket
+     * @param originWeighter elige la mejor opcion de ticket si es el aeropuerto de origen,
+     * null si se usa <i>weighter</i>
+     * @param itineraries si se guardan los arboles para reconstruir los caminos
+     * @param threads cantidad maxima de hilos
+     */
+    public static RouteMatrix compute (FlightGraph graph, List<Airport> origins,
+        List<Airport> destinations, StaticWeighter weighter, StaticWeighter originWeighter,
+        boolean itineraries, int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Cantidad de hilos invalida");
+        RouteMatrix matrix = new RouteMatrix(origins, destinations, itineraries);
+        matrix.run(graph, weighter, originWeighter, Math.min(threads, origins.size()));
+        return matrix;
+    }
+
+    private void run (final FlightGraph graph, final StaticWeighter weighter,
+        final StaticWeighter originWeighter, int threads) {
+        final AtomicInteger next = new AtomicInteger();
+        Runnable worker = new Runnable() {
+            @Override public void run () {
+                SearchContext ctx = new SearchContext(graph.size());
+                int i;
+                while ((i = next.getAndIncrement()) < origins.length)
+                    solve(i, InfinityDijkstra.oneToAll(ctx, graph, origins[i], weighter,
+                        originWeighter));
+            }
+        };
+        if (threads <= 1) {
+            worker.run();
+            return;
+        }
+
+        Thread[] workers = new Thread[threads - 1];
+        for (int t = 0; t < workers.length; t++) {
+            workers[t] = new Thread(worker, "route-matrix-" + t);
+            workers[t].start();
+        }
+        worker.run();   // El hilo que llama tambien resuelve origenes
+        try {
+            for (Thread t : workers)
+                t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Calculo de la matriz interrumpido", e);
+        }
+    }
+
+    /**
+     * Guarda la fila del origen <i>i</i>. Cada fila la escribe un unico hilo.
+     */
+    private void solve (int i, ShortestPathTree tree) {
+        double[] row = new double[destinations.length];
+        for (int j = 0; j < destinations.length; j++)
+            row[j] = tree.weightTo(destinations[j]);
+        weights[i] = row;
+        if (trees != null)
+            trees[i] = tree;
+    }
+
+    public int rows () {
+        return origins.length;
+    }
+
+    public int columns () {
+        return destinations.length;
+    }
+
+    /**
+     * Peso minimo del origen <i>i</i> al destino <i>j</i>, infinito si no hay camino
+     */
+    public double getWeight (int i, int j) {
+        return weights[i][j];
+    }
+
+    /**
+     * Devuelve la matriz de pesos. Es la que guarda este objeto, por lo que no debe
+     * modificarse.
+     */
+    public double[][] getWeights () {
+        return weights;
+    }
+
+    /**
+     * Indica si se guardaron los caminos
+     */
+    public boolean hasItineraries () {
+        return trees != null;
+    }
+
+    /**
+     * Devuelve el camino minimo del origen <i>i</i> al destino <i>j</i>
+     * @return lista vacia si no hay camino
+     * @throws IllegalStateException si la matriz se calculo sin caminos
+     */
+    public List<Ticket> getRoute (int i, int j) {
+        if (trees == null)
+            throw new IllegalStateException("La matriz no guarda caminos");
+        if (origins[i] == destinations[j])
+            return new LinkedList<>();
+        return trees[i].pathTo(destinations[j]);
+    }
+}
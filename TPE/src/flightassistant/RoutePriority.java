@@ -0,0 +1,16 @@
+package flightassistant;
+
+/**
+ * Criterio con el que se elige el mejor camino de una {@link RouteQuery}
+ */
+public enum RoutePriority {
+
+    /** Menor tiempo de vuelo (ft) */
+    FLIGHT_TIME,
+
+    /** Menor precio (pr) */
+    PRICE,
+
+    /** Menor tiempo total, esperas incluidas (tt) */
+    TOTAL_TIME
+}
@@ -0,0 +1,58 @@
+package flightassistant;
+
+import utils.Day;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pedido de camino entre dos aeropuertos, para resolver junto con otros en
+ * {@link FlightAssistant#findRoutes(List)}
+ */
+public class RouteQuery {
+
+    private String origin;
+    private String destination;
+    private RoutePriority priority;
+    private List<Day> days;
+
+    /**
+     * @param origin ID del aeropuerto origen
+     * @param destination ID del aeropuerto destino
+     * @param priority criterio del camino
+     * @param days dias de salida posibles, todos si esta vacia
+     */
+    public RouteQuery (String origin, String destination, RoutePriority priority,
+        List<Day> days) {
+        if (origin == null || destination == null || priority == null || days == null)
+            throw new IllegalArgumentException("Parametro nulo");
+        this.origin = origin;
+        this.destination = destination;
+        this.priority = priority;
+        this.days = Collections.unmodifiableList(new ArrayList<>(days));
+    }
+
+    public String getOrigin () {
+        return origin;
+    }
+
+    public String getDestination () {
+        return destination;
+    }
+
+    public RoutePriority getPriority () {
+        return priority;
+    }
+
+    /**
+     * Dias de salida posibles, todos si esta vacia. La lista no se puede modificar.
+     */
+    public List<Day> getDays () {
+        return days;
+    }
+
+    @Override public String toString () {
+        return origin + " " + destination + " " + priority + " " + days;
+    }
+}
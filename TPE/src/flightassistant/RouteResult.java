@@ -0,0 +1,38 @@
+package flightassistant;
+
+import java.util.List;
+
+/**
+ * Resultado de una {@link RouteQuery}: el camino encontrado y lo que tardo la busqueda
+ */
+public class RouteResult {
+
+    private RouteQuery query;
+    private List<Ticket> route;
+    private long elapsedNanos;
+
+    RouteResult (RouteQuery query, List<Ticket> route, long elapsedNanos) {
+        this.query = query;
+        this.route = route;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public RouteQuery getQuery () {
+        return query;
+    }
+
+    /**
+     * Camino encontrado: lista vacia si no hay camino, o null si alguno de los aeropuertos no
+     * existe o son el mismo
+     */
+    public List<Ticket> getRoute () {
+        return route;
+    }
+
+    /**
+     * Tiempo que tardo la busqueda, en nanosegundos
+     */
+    public long getElapsedNanos () {
+        return elapsedNanos;
+    }
+}
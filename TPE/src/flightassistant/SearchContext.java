@@ -0,0 +1,161 @@
+package flightassistant;
+
+import structures.IndexedMinHeap;
+
+import java.util.Arrays;
+
+/**
+ * Estado de una busqueda de caminos minimos. Guarda, indexado por el id denso de cada
+ * {@link Airport}, la distancia acumulada, si el nodo ya fue visitado y el {@link Ticket}
+ * incidente con el que se llego a el.
+ * <p>
+ * El contexto es reutilizable: en lugar de limpiar los arreglos antes de cada busqueda se
+ * usa un numero de epoca. Cada posicion guarda la epoca en la que fue escrita, y solo se
+ * considera valida si coincide con la epoca actual. Asi, reiniciar el contexto es O(1) y el
+ * costo de una busqueda depende solamente de los nodos que efectivamente toca.
+ * <p>
+ * Cada busqueda en curso necesita su propio contexto, de manera que dos busquedas con
+ * contextos distintos pueden ejecutarse al mismo tiempo sin modificar el grafo. El contexto
+ * incluye tambien la cola de prioridades, que se reutiliza entre busquedas.
+ * @see InfinityDijkstra
+ */
+public class SearchContext {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int epoch;
+    private int[] reachedEpoch;
+    private int[] visitedEpoch;
+    private double[] distance;
+    private double[] estimate;
+    private Ticket[] incident;
+    private int settled;
+    private IndexedMinHeap queue;
+
+    public SearchContext () {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SearchContext (int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Illegal capacity < 1");
+        reachedEpoch = new int[capacity];
+        visitedEpoch = new int[capacity];
+        distance = new double[capacity];
+        estimate = new double[capacity];
+        incident = new Ticket[capacity];
+        queue = new IndexedMinHeap(capacity);
+    }
+
+    /**
+     * Prepara el contexto para una nueva busqueda sobre un grafo de <i>nodes</i> nodos.
+     * Los datos de la busqueda anterior quedan invalidados.
+     * @param nodes cantidad de nodos del grafo
+     */
+    public void reset (int nodes) {
+        ensureCapacity(nodes);
+        queue.clear();
+        settled = 0;
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) { // Se reinicia el contador para no desbordar
+            Arrays.fill(reachedEpoch, 0);
+            Arrays.fill(visitedEpoch, 0);
+            Arrays.fill(incident, null);
+            epoch = 1;
+        }
+    }
+
+    private void ensureCapacity (int nodes) {
+        if (nodes <= distance.length)
+            return;
+        int capacity = Math.max(nodes, distance.length * 2);
+        reachedEpoch = Arrays.copyOf(reachedEpoch, capacity);
+        visitedEpoch = Arrays.copyOf(visitedEpoch, capacity);
+        distance = Arrays.copyOf(distance, capacity);
+        estimate = Arrays.copyOf(estimate, capacity);
+        incident = Arrays.copyOf(incident, capacity);
+        queue.ensureCapacity(capacity);
+    }
+
+    /**
+     * Devuelve la cola de prioridades de la busqueda, indexada por id de nodo.
+     * Se vacia en cada {@link #reset(int)}.
+     */
+    public IndexedMinHeap getQueue () {
+        return queue;
+    }
+
+    /**
+     * Devuelve la distancia acumulada hasta un nodo, o infinito si todavia no fue alcanzado
+     */
+    public double getDistance (int node) {
+        return isReached(node) ? distance[node] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Indica si el nodo fue alcanzado en la busqueda actual
+     */
+    public boolean isReached (int node) {
+        return reachedEpoch[node] == epoch;
+    }
+
+    /**
+     * Actualiza la distancia de un nodo junto con el ticket con el que se llega a el
+     * @param node id del nodo
+     * @param weight nueva distancia acumulada
+     * @param ticket <tt>Ticket</tt> incidente, null si es el origen
+     */
+    public void relax (int node, double weight, Ticket ticket) {
+        reachedEpoch[node] = epoch;
+        distance[node] = weight;
+        incident[node] = ticket;
+    }
+
+    /**
+     * Guarda la cota inferior de la distancia restante desde un nodo alcanzado hasta el
+     * destino, para no tener que calcularla en cada relajacion.
+     * @see LowerBound
+     */
+    public void setEstimate (int node, double value) {
+        estimate[node] = value;
+    }
+
+    /**
+     * Devuelve la cota guardada con {@link #setEstimate(int, double)}. Solo es valida si el
+     * nodo fue alcanzado en la busqueda actual.
+     */
+    public double getEstimate (int node) {
+        return estimate[node];
+    }
+
+    /**
+     * Retorna el <tt>Ticket</tt> con el que se llego al nodo, o null si no tiene
+     */
+    public Ticket getIncident (int node) {
+        return isReached(node) ? incident[node] : null;
+    }
+
+    /**
+     * Marca el nodo como visitado
+     */
+    public void visit (int node) {
+        if (visitedEpoch[node] != epoch) {
+            visitedEpoch[node] = epoch;
+            settled++;
+        }
+    }
+
+    /**
+     * Consulta si un nodo fue visitado en la busqueda actual
+     */
+    public boolean visited (int node) {
+        return visitedEpoch[node] == epoch;
+    }
+
+    /**
+     * Cantidad de nodos visitados desde el ultimo {@link #reset(int)}
+     */
+    public int settledCount () {
+        return settled;
+    }
+}
@@ -0,0 +1,84 @@
+package flightassistant;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Arbol de caminos minimos desde un aeropuerto hacia todos los demas, resultado de un
+ * Dijkstra corrido hasta agotar la cola. Guarda el peso y el ticket incidente de cada
+ * aeropuerto de la {@link FlightGraph} sobre la que se calculo, por lo que el camino a
+ * cualquier destino se obtiene sin volver a buscar.
+ * @see InfinityDijkstra#oneToAll
+ */
+public class ShortestPathTree {
+
+    private FlightGraph graph;
+    private Airport origin;
+    private double[] weights;
+    private Ticket[] incident;
+
+    /**
+     * Copia el resultado de una busqueda terminada
+     */
+    ShortestPathTree (FlightGraph graph, Airport origin, SearchContext ctx) {
+        this.graph = graph;
+        this.origin = origin;
+        int n = graph.size();
+        weights = new double[n];
+        incident = new Ticket[n];
+        for (int v = 0; v < n; v++) {
+            weights[v] = ctx.getDistance(v);
+            incident[v] = ctx.getIncident(v);
+        }
+    }
+
+    /**
+     * Aeropuerto desde el que salen todos los caminos
+     */
+    public Airport getOrigin () {
+        return origin;
+    }
+
+    /**
+     * Indica si hay camino desde el origen hasta el aeropuerto
+     */
+    public boolean reaches (Airport airport) {
+        return !Double.isInfinite(weightTo(airport));
+    }
+
+    /**
+     * Peso del camino minimo hasta el aeropuerto, infinito si no hay camino
+     */
+    public double weightTo (Airport airport) {
+        return weights[indexOf(airport)];
+    }
+
+    /**
+     * Devuelve el camino minimo hasta el aeropuerto
+     * @return lista vacia si no hay camino o es el origen
+     */
+    public List<Ticket> pathTo (Airport airport) {
+        LinkedList<Ticket> list = new LinkedList<>();
+        if (!reaches(airport))
+            return list;
+        Ticket t;
+        for (int v = indexOf(airport); (t = incident[v]) != null; v = t.getOrigin().getIndex())
+            list.addFirst(t);
+        return list;
+    }
+
+    /**
+     * Pesos de todos los aeropuertos, indexados por su id denso
+     */
+    public double[] getWeights () {
+        return Arrays.copyOf(weights, weights.length);
+    }
+
+    private int indexOf (Airport airport) {
+        int index = airport.getIndex();
+        if (index >= graph.size() || graph.getAirport(index) != airport)
+            throw new IllegalArgumentException("El aeropuerto no pertenece al grafo");
+        return index;
+    }
+}
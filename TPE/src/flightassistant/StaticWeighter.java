@@ -0,0 +1,34 @@
+package flightassistant;
+
+/**
+ * Un {@link Weighter} cuyo peso no depende del momento en que se llega al aeropuerto, por lo
+ * que cada arista del {@link FlightGraph} tiene un unico mejor ticket.
+ * @see PriceWeighter
+ * @see AirtimeWeighter
+ */
+public interface StaticWeighter extends Weighter {
+
+    /**
+     * Devuelve el peso de un ticket segun el criterio del weighter
+     */
+    double weight (Ticket ticket);
+
+    /**
+     * Devuelve el mejor ticket de una arista del grafo, o null si no hay vuelos que sirvan
+     * @param graph grafo al que pertenece la arista
+     * @param edge arista
+     */
+    Ticket edgeTicket (FlightGraph graph, int edge);
+
+    /**
+     * Devuelve una cota inferior del peso por kilometro recorrido de cualquier arista del grafo
+     * @see GreatCircleBound
+     */
+    double minWeightPerKm (FlightGraph graph);
+
+    /**
+     * Devuelve la cota de landmarks del criterio del weighter hasta <i>target</i>
+     * @see Landmarks
+     */
+    LowerBound landmarkBound (Landmarks landmarks, Airport target);
+}
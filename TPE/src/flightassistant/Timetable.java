@@ -0,0 +1,128 @@
+package flightassistant;
+
+import utils.Day;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Horario semanal de una {@link FlightGraph}: todas las conexiones (tickets) en arreglos
+ * paralelos ordenados por minuto de salida dentro de la semana. La semana es ciclica, por lo
+ * que despues de la ultima conexion se vuelve a la primera sumando una semana.
+ * @see ConnectionScan
+ */
+public class Timetable {
+
+    private final int[] departures;
+    private final int[] durations;
+    private final int[] sources;
+    private final int[] targets;
+    private final Ticket[] tickets;
+
+    /**
+     * Construye el horario con los tickets de todas las aristas del grafo
+     */
+    Timetable (FlightGraph graph) {
+        int count = 0;
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            for (Day day : FlightGraph.allDays()) {
+                Iterator<Ticket> iter = graph.dayFlights(e, day);
+                for (; iter.hasNext(); iter.next())
+                    count++;
+            }
+        }
+
+        // Se ordena por minuto de salida guardando el indice original en los bits bajos
+        long[] keys = new long[count];
+        Ticket[] unsorted = new Ticket[count];
+        int[] edges = new int[count];
+        int c = 0;
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            for (Day day : FlightGraph.allDays()) {
+                Iterator<Ticket> iter = graph.dayFlights(e, day);
+                while (iter.hasNext()) {
+                    unsorted[c] = iter.next();
+                    edges[c] = e;
+                    keys[c] = ((long) unsorted[c].getDeparture().getMinuteOfWeek() << 32) | c;
+                    c++;
+                }
+            }
+        }
+        Arrays.sort(keys);
+
+        departures = new int[count];
+        durations = new int[count];
+        sources = new int[count];
+        targets = new int[count];
+        tickets = new Ticket[count];
+        for (int i = 0; i < count; i++) {
+            int original = (int) keys[i];
+            Ticket ticket = unsorted[original];
+            departures[i] = (int) (keys[i] >>> 32);
+            durations[i] = ticket.getDuration().getMinutes();
+            sources[i] = graph.getSource(edges[original]);
+            targets[i] = graph.getTarget(edges[original]);
+            tickets[i] = ticket;
+        }
+    }
+
+    /**
+     * Cantidad de conexiones semanales
+     */
+    public int size () {
+        return tickets.length;
+    }
+
+    /**
+     * Posicion de la primera conexion que sale en el minuto dado o despues, o <tt>size()</tt>
+     * si no hay ninguna hasta el final de la semana
+     * @param minuteOfWeek minuto de la semana
+     */
+    public int firstFrom (int minuteOfWeek) {
+        int low = 0;
+        int high = departures.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures[mid] < minuteOfWeek)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Minuto de la semana en el que sale la conexion
+     */
+    public int getDeparture (int connection) {
+        return departures[connection];
+    }
+
+    /**
+     * Duracion en minutos de la conexion
+     */
+    public int getDuration (int connection) {
+        return durations[connection];
+    }
+
+    /**
+     * Nodo del que sale la conexion
+     */
+    public int getSource (int connection) {
+        return sources[connection];
+    }
+
+    /**
+     * Nodo al que llega la conexion
+     */
+    public int getTarget (int connection) {
+        return targets[connection];
+    }
+
+    /**
+     * Ticket de la conexion
+     */
+    public Ticket getTicket (int connection) {
+        return tickets[connection];
+    }
+}
@@ -0,0 +1,17 @@
+package flightassistant;
+
+/**
+ * Algoritmos disponibles para buscar el camino de menor tiempo total
+ * @see FlightAssistant#setTotalTimeEngine(TotalTimeEngine)
+ */
+public enum TotalTimeEngine {
+
+    /** Un Dijkstra por cada ticket distinto que sale del origen */
+    DIJKSTRA,
+
+    /** Un recorrido del horario por cada ticket distinto que sale del origen */
+    CONNECTION_SCAN,
+
+    /** Minimo del perfil de viaje, calculado con un unico barrido del horario */
+    PROFILE
+}
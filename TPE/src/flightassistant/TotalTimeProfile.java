@@ -0,0 +1,87 @@
+package flightassistant;
+
+import utils.Day;
+import utils.TimeConstants;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Perfil de viaje entre dos aeropuertos: para cada ticket que sale del origen, el tiempo total
+ * del camino que llega antes al destino tomandolo como primer vuelo. Las salidas estan
+ * ordenadas por minuto de la semana.
+ * @see ProfileSearch
+ */
+public class TotalTimeProfile {
+
+    private int[] departures;
+    private int[] totalTimes;
+    private List<List<Ticket>> routes;
+
+    TotalTimeProfile (int[] departures, int[] totalTimes, List<List<Ticket>> routes) {
+        this.departures = departures;
+        this.totalTimes = totalTimes;
+        this.routes = routes;
+    }
+
+    /**
+     * Cantidad de salidas del origen desde las que se llega al destino
+     */
+    public int size () {
+        return departures.length;
+    }
+
+    /**
+     * Minuto de la semana de la salida <i>i</i>
+     */
+    public int getDeparture (int i) {
+        return departures[i];
+    }
+
+    /**
+     * Tiempo total en minutos del mejor camino que arranca con la salida <i>i</i>
+     */
+    public int getTotalTime (int i) {
+        return totalTimes[i];
+    }
+
+    /**
+     * Camino que arranca con la salida <i>i</i>
+     */
+    public List<Ticket> getRoute (int i) {
+        return new LinkedList<>(routes.get(i));
+    }
+
+    /**
+     * Tiempo total desde el minuto de la semana dado, esperando en el origen hasta la salida
+     * que llega antes al destino
+     * @param minuteOfWeek minuto de la semana en el que se esta en el origen
+     * @return tiempo total en minutos incluyendo la espera, o infinito si no hay salidas
+     */
+    public double totalTimeFrom (int minuteOfWeek) {
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < departures.length; i++) {
+            int wait = departures[i] - minuteOfWeek;
+            if (wait < 0)
+                wait += TimeConstants.MINUTES_PER_WEEK;
+            best = Math.min(best, wait + totalTimes[i]);
+        }
+        return best;
+    }
+
+    /**
+     * Devuelve el camino de menor tiempo total entre los que salen alguno de los dias dados
+     * @param days dias de salida posibles, todos si esta vacia
+     * @return lista vacia si no hay camino
+     */
+    public List<Ticket> bestRoute (List<Day> days) {
+        int best = -1;
+        for (int i = 0; i < departures.length; i++) {
+            Day day = routes.get(i).get(0).getDeparture().getDay();
+            if ((days.isEmpty() || days.contains(day))
+                && (best < 0 || totalTimes[i] < totalTimes[best]))
+                best = i;
+        }
+        return best < 0 ? new LinkedList<Ticket>() : getRoute(best);
+    }
+}
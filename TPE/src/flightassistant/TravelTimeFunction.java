@@ -0,0 +1,157 @@
+package flightassistant;
+
+import utils.TimeConstants;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Funcion de tiempo de viaje de una arista a lo largo de la semana: para cada minuto en el que
+ * se esta en el aeropuerto de salida, la espera hasta el vuelo que llega antes mas su duracion.
+ * Es lineal por partes, con pendiente -1 entre dos salidas consecutivas, por lo que alcanza con
+ * guardar los vuelos que la definen.
+ * <p>
+ * Se descartan los vuelos dominados, es decir los que tienen otro que sale despues (dentro de
+ * la semana) y llega antes o al mismo tiempo. Los que quedan llegan en el mismo orden en que
+ * salen, por lo que el mejor vuelo desde un minuto es siempre el primero que sale a partir de
+ * ese minuto y se encuentra con una busqueda binaria.
+ * @see FlightGraph#getTravelTime(int)
+ */
+public class TravelTimeFunction {
+
+    private static final int WEEK = TimeConstants.MINUTES_PER_WEEK;
+
+    private static final Comparator<Ticket> DEPARTURE_CMP = new Comparator<Ticket>() {
+        @Override public int compare (Ticket t1, Ticket t2) {
+            int cmp = Integer.compare(t1.getDeparture().getMinuteOfWeek(),
+                t2.getDeparture().getMinuteOfWeek());
+            return cmp != 0 ? cmp : t1.getDuration().compareTo(t2.getDuration());
+        }
+    };
+
+    private final int[] departures;
+    private final int[] durations;
+    private final Ticket[] tickets;
+
+    /**
+     * Construye la funcion con los vuelos de la arista, en cualquier orden
+     */
+    TravelTimeFunction (List<Ticket> flights) {
+        Ticket[] sorted = flights.toArray(new Ticket[flights.size()]);
+        Arrays.sort(sorted, DEPARTURE_CMP);
+        int n = sorted.length;
+        int[] departure = new int[n];
+        int[] arrival = new int[n];
+        for (int i = 0; i < n; i++) {
+            departure[i] = sorted[i].getDeparture().getMinuteOfWeek();
+            arrival[i] = departure[i] + sorted[i].getDuration().getMinutes();
+        }
+
+        // Un vuelo queda si llega antes que todos los que salen despues dentro de la semana.
+        // Se recorren dos semanas de atras hacia adelante con una ventana de n - 1 vuelos,
+        // guardando en la cola los candidatos a menor llegada.
+        boolean[] keep = new boolean[n];
+        int kept = 0;
+        Deque<Integer> window = new ArrayDeque<>();
+        for (int p = 2 * n - 1; p >= 0; p--) {
+            int i = p % n;
+            if (p < n) {
+                while (!window.isEmpty() && window.peekFirst() >= p + n)
+                    window.pollFirst();
+                int bestLater = window.isEmpty() ? Integer.MAX_VALUE
+                    : arrivalAt(arrival, n, window.peekFirst());
+                boolean sameDeparture = i > 0 && departure[i - 1] == departure[i];
+                keep[i] = !sameDeparture && arrival[i] < bestLater;
+                if (keep[i])
+                    kept++;
+            }
+            int arrivalP = arrivalAt(arrival, n, p);
+            while (!window.isEmpty() && arrivalAt(arrival, n, window.peekLast()) >= arrivalP)
+                window.pollLast();
+            window.addLast(p);
+        }
+
+        departures = new int[kept];
+        durations = new int[kept];
+        tickets = new Ticket[kept];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                departures[k] = departure[i];
+                durations[k] = arrival[i] - departure[i];
+                tickets[k] = sorted[i];
+                k++;
+            }
+        }
+    }
+
+    /**
+     * Llegada del vuelo en la posicion <i>p</i> de dos semanas consecutivas
+     */
+    private static int arrivalAt (int[] arrival, int n, int p) {
+        return p < n ? arrival[p] : arrival[p - n] + WEEK;
+    }
+
+    /**
+     * Cantidad de vuelos que definen la funcion
+     */
+    public int size () {
+        return tickets.length;
+    }
+
+    /**
+     * Devuelve el mejor vuelo para salir a partir del minuto dado
+     * @param minuteOfWeek minuto de la semana en el que se esta en el aeropuerto de salida
+     * @return posicion del vuelo, o -1 si la arista no tiene vuelos
+     */
+    public int next (int minuteOfWeek) {
+        if (tickets.length == 0)
+            return -1;
+        int low = 0;
+        int high = departures.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures[mid] < minuteOfWeek)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        // Si no hay, el primero de la semana siguiente
+        return low == departures.length ? 0 : low;
+    }
+
+    /**
+     * Tiempo de viaje, espera incluida, tomando el vuelo <i>i</i> desde el minuto dado
+     */
+    public int travelTime (int i, int minuteOfWeek) {
+        int wait = departures[i] - minuteOfWeek;
+        if (wait < 0)
+            wait += WEEK;
+        return wait + durations[i];
+    }
+
+    /**
+     * Evalua la funcion: tiempo de viaje desde el minuto dado, o infinito si no hay vuelos
+     */
+    public double travelTime (int minuteOfWeek) {
+        int i = next(minuteOfWeek);
+        return i < 0 ? Double.POSITIVE_INFINITY : travelTime(i, minuteOfWeek);
+    }
+
+    /**
+     * Minuto de la semana en el que sale el vuelo <i>i</i>
+     */
+    public int getDeparture (int i) {
+        return departures[i];
+    }
+
+    /**
+     * Vuelo en la posicion <i>i</i>
+     */
+    public Ticket getTicket (int i) {
+        return tickets[i];
+    }
+}
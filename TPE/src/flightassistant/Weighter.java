@@ -1,11 +1,20 @@
 package flightassistant;
 
 /**
- * Permite elegir el la mejor opción de {@link Ticket} desde un {@link Airport} a otro
+ * Permite elegir el la mejor opción de {@link Ticket} en una arista del {@link FlightGraph}
  * @see InfinityDijkstra
- * @see Airport
+ * @see FlightGraph
  *
  */
 public interface Weighter {
-    WeightedTicket minTicket (Airport from, Airport to);
+
+    /**
+     * Elige el mejor ticket para recorrer una arista de la foto del grafo. Solo se leen los
+     * datos de la foto, por lo que el resultado no cambia si despues se modifican los vuelos.
+     * @param graph foto del grafo
+     * @param edge arista que sale del aeropuerto actual
+     * @param incident <tt>Ticket</tt> con el que se llego al aeropuerto de salida, null si es
+     * el origen
+     */
+    WeightedTicket minTicket (FlightGraph graph, int edge, Ticket incident);
 }
@@ -1,15 +1,39 @@
 package structures;
 
-import java.lang.reflect.Array;
 import java.util.*;
 
+/**
+ * Tabla de hash abierta cuyos buckets son {@link PersistentAVLMap}, por lo que las claves que
+ * colisionan se ordenan con el comparador. {@link #snapshot()} copia el mapa sin copiar los
+ * pares, por ejemplo para recorrerlo mientras se sigue modificando.
+ * <p>
+ * La cantidad de buckets es potencia de dos y se duplica cuando hay mas pares que buckets, o se
+ * reduce a la mitad cuando hay menos de un par cada {@link #SHRINK_RATIO} buckets, sin bajar de
+ * la capacidad inicial. Los buckets se crean con el primer par y se descartan al vaciarse; un
+ * bucket con una sola clave guarda solo el par, sin armar el arbol.
+ * El rehash es incremental: mientras dura se conservan la tabla anterior y la nueva, y cada
+ * {@link #put(Object, Object)} o {@link #remove(Object)} mueve unos pocos buckets de una a
+ * otra. Las consultas no mueven nada, por lo que varios hilos pueden consultar a la vez
+ * mientras nadie modifique el mapa.
+ */
 public class AVLHashMap <K, V> implements SimpleMap<K, V> {
 
     private static final int DEFAULT_CAPACITY = 20;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final int SHRINK_RATIO = 8;
+    /** Buckets con pares de la tabla anterior que se mueven en cada modificacion */
+    private static final int REHASH_STEPS = 2;
+    /** Buckets vacios que se saltean como maximo en cada modificacion */
+    private static final int REHASH_EMPTY_VISITS = 10 * REHASH_STEPS;
 
     private int size;
-    private AVLMap<K, V>[] buckets;
-    private int mod;
+    /** Cada bucket es null, una {@link Entry} o un {@link PersistentAVLMap} con varios pares */
+    private Object[] buckets;
+    /** Tabla anterior mientras se hace el rehash, o null */
+    private Object[] old;
+    /** Los buckets de la tabla anterior con indice menor ya se movieron a la nueva */
+    private int rehashIndex;
+    private int minCapacity;
     private Comparator<K> cmp;
 
     public AVLHashMap (int capacity) {
@@ -28,43 +52,158 @@ public class AVLHashMap <K, V> implements SimpleMap<K, V> {
         initiate(DEFAULT_CAPACITY, getNaturalComparator());
     }
 
-    @SuppressWarnings("unchecked") private void initiate (int capacity, Comparator<K> comparator) {
+    private void initiate (int capacity, Comparator<K> comparator) {
         if (comparator == null)
             throw new IllegalArgumentException("Illegal comparator: null");
         if (capacity < 1)
             throw new IllegalArgumentException("Illegal capacity < 1");
         cmp = comparator;
-        mod = capacity;
-        buckets = (AVLMap[]) Array.newInstance(AVLMap.class, capacity);
+        minCapacity = tableSize(capacity);
+        buckets = newTable(minCapacity);
+    }
+
+    private AVLHashMap (AVLHashMap<K, V> other) {
+        cmp = other.cmp;
+        minCapacity = other.minCapacity;
+        size = other.size;
+        buckets = copyTable(other.buckets);
+        if (other.old != null) {
+            old = copyTable(other.old);
+            rehashIndex = other.rehashIndex;
+        }
+    }
+
+    /**
+     * Devuelve un mapa con los pares actuales que no cambia al modificar este, ni este al
+     * modificar el devuelto. Cuesta O(capacidad): los buckets comparten sus nodos.
+     */
+    public AVLHashMap<K, V> snapshot () {
+        return new AVLHashMap<K, V>(this);
+    }
+
+    /**
+     * Menor potencia de dos mayor o igual a la capacidad pedida
+     */
+    private static int tableSize (int capacity) {
+        if (capacity >= MAX_CAPACITY)
+            return MAX_CAPACITY;
+        return capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    private Object[] newTable (int capacity) {
+        return new Object[capacity];
+    }
+
+    /**
+     * Copia la tabla compartiendo las {@link Entry}, que son inmutables, y las versiones
+     * actuales de los buckets con mas pares
+     */
+    private Object[] copyTable (Object[] table) {
+        Object[] copy = newTable(table.length);
+        for (int i = 0; i < table.length; i++)
+            if (table[i] instanceof Entry)
+                copy[i] = table[i];
+            else if (table[i] != null)
+                copy[i] = asMap(table[i]).snapshot();
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked") private <A, B> Entry<A, B> asEntry (Object slot) {
+        return (Entry<A, B>) slot;
+    }
 
-        for (int i = 0; i < buckets.length; i++)
-            buckets[i] = new AVLMap<>(comparator);
+    @SuppressWarnings("unchecked") private <A, B> PersistentAVLMap<A, B> asMap (Object slot) {
+        return (PersistentAVLMap<A, B>) slot;
     }
 
     @Override public void put (K key, V value) {
-        int i = hash(key);
-        int prevSize = buckets[i].size();
-        buckets[i].put(key, value);
-        if (prevSize != buckets[i].size())
+        rehashStep();
+        int h = hash(key);
+        Object[] table = tableOf(h);
+        if (insert(table, h & (table.length - 1), key, value)) {
             size += 1;
+            resizeIfNeeded();
+        }
     }
 
     @Override public V get (K key) {
-        int i = hash(key);
-        return buckets[i].get(key);
+        Object slot = bucketOf(key);
+        if (slot instanceof Entry) {
+            Entry<K, V> entry = asEntry(slot);
+            return cmp.compare(entry.key, key) == 0 ? entry.value : null;
+        }
+        return slot == null ? null : this.<K, V>asMap(slot).get(key);
     }
 
     @Override public boolean containsKey (K key) {
-        int i = hash(key);
-        return buckets[i].containsKey(key);
+        Object slot = bucketOf(key);
+        if (slot instanceof Entry)
+            return cmp.compare(this.<K, V>asEntry(slot).key, key) == 0;
+        return slot != null && this.<K, V>asMap(slot).containsKey(key);
     }
 
     @Override public void remove (K key) {
-        int i = hash(key);
-        int prevSize = buckets[i].size();
-        buckets[i].remove(key);
-        if (prevSize != buckets[i].size())
+        rehashStep();
+        int h = hash(key);
+        Object[] table = tableOf(h);
+        if (delete(table, h & (table.length - 1), key)) {
             size -= 1;
+            resizeIfNeeded();
+        }
+    }
+
+    /**
+     * Agrega el par al bucket i de la tabla. Un bucket vacio pasa a tener una {@link Entry} y
+     * recien con la segunda clave se arma el {@link PersistentAVLMap}.
+     * @return true si la clave no estaba
+     */
+    private boolean insert (Object[] table, int i, K key, V value) {
+        Object slot = table[i];
+        if (slot == null) {
+            table[i] = new Entry<K, V>(key, value);
+            return true;
+        }
+        if (slot instanceof Entry) {
+            Entry<K, V> entry = asEntry(slot);
+            if (cmp.compare(entry.key, key) == 0) {
+                table[i] = new Entry<K, V>(key, value);
+                return false;
+            }
+            PersistentAVLMap<K, V> map = new PersistentAVLMap<>(cmp);
+            map.put(entry.key, entry.value);
+            map.put(key, value);
+            table[i] = map;
+            return true;
+        }
+        PersistentAVLMap<K, V> map = asMap(slot);
+        int prevSize = map.size();
+        map.put(key, value);
+        return prevSize != map.size();
+    }
+
+    /**
+     * Elimina la clave del bucket i de la tabla. Si en el bucket queda una sola clave vuelve a
+     * guardarse como {@link Entry}, y si no queda ninguna se descarta.
+     * @return true si la clave estaba
+     */
+    private boolean delete (Object[] table, int i, K key) {
+        Object slot = table[i];
+        if (slot == null)
+            return false;
+        if (slot instanceof Entry) {
+            if (cmp.compare(this.<K, V>asEntry(slot).key, key) != 0)
+                return false;
+            table[i] = null;
+            return true;
+        }
+        PersistentAVLMap<K, V> map = asMap(slot);
+        int prevSize = map.size();
+        map.remove(key);
+        if (prevSize == map.size())
+            return false;
+        if (map.size() == 1)
+            table[i] = new Entry<K, V>(map.keyIterator().next(), map.valueIterator().next());
+        return true;
     }
 
     @Override public int size () {
@@ -77,20 +216,110 @@ public class AVLHashMap <K, V> implements SimpleMap<K, V> {
 
     @Override public void clear () {
         size = 0;
-        for (AVLMap<K, V> bucket : buckets)
-            bucket.clear();
+        buckets = newTable(minCapacity);
+        old = null;
     }
 
     @Override public boolean containsValue (V value) {
-        for (AVLMap<K, V> bucket : buckets)
-            if (bucket.containsValue(value))
+        Iterator<V> iter = valueIterator();
+        while (iter.hasNext())
+            if (iter.next().equals(value))
                 return true;
         return false;
     }
 
+    /**
+     * Mezcla los bits altos del hashCode con los bajos, que son los que eligen el bucket
+     */
     private int hash (Object key) {
-        int i = key.hashCode() % mod;
-        return i > 0 ? i : -i;
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Devuelve la tabla en la que esta el bucket del hash: la anterior si su bucket todavia no
+     * se movio, o la actual
+     */
+    private Object[] tableOf (int h) {
+        if (old != null && (h & (old.length - 1)) >= rehashIndex)
+            return old;
+        return buckets;
+    }
+
+    private Object bucketOf (K key) {
+        int h = hash(key);
+        Object[] table = tableOf(h);
+        return table[h & (table.length - 1)];
+    }
+
+    /**
+     * Empieza un rehash si la cantidad de pares se alejo de la cantidad de buckets. Si hay uno
+     * en curso lo termina antes.
+     */
+    private void resizeIfNeeded () {
+        int capacity = buckets.length;
+        int newCapacity;
+        if (size > capacity && capacity < MAX_CAPACITY)
+            newCapacity = capacity << 1;
+        else if (size < capacity / SHRINK_RATIO && capacity > minCapacity)
+            newCapacity = capacity >> 1;
+        else
+            return;
+        while (old != null)
+            rehashStep();
+        old = buckets;
+        buckets = newTable(newCapacity);
+        rehashIndex = 0;
+        rehashStep();
+    }
+
+    /**
+     * Mueve a la tabla actual los siguientes buckets de la anterior
+     */
+    private void rehashStep () {
+        if (old == null)
+            return;
+        int moved = 0;
+        int visited = 0;
+        while (rehashIndex < old.length && moved < REHASH_STEPS
+            && visited < REHASH_EMPTY_VISITS) {
+            Object bucket = old[rehashIndex];
+            if (bucket != null) {
+                old[rehashIndex] = null;
+                move(bucket);
+                moved++;
+            }
+            rehashIndex++;
+            visited++;
+        }
+        if (rehashIndex == old.length)
+            old = null;
+    }
+
+    private void move (Object bucket) {
+        if (bucket instanceof Entry) {
+            Entry<K, V> entry = asEntry(bucket);
+            insert(buckets, hash(entry.key) & (buckets.length - 1), entry.key, entry.value);
+            return;
+        }
+        PersistentAVLMap<K, V> map = asMap(bucket);
+        Iterator<K> keys = map.keyIterator();
+        Iterator<V> values = map.valueIterator();
+        while (keys.hasNext()) {
+            K key = keys.next();
+            insert(buckets, hash(key) & (buckets.length - 1), key, values.next());
+        }
+    }
+
+    /**
+     * Tablas en el orden en que se recorren: la anterior, si hay un rehash en curso, y la actual
+     */
+    private Object[][] tables () {
+        Object[][] tables = new Object[old == null ? 1 : 2][];
+        tables[tables.length - 1] = buckets;
+        if (old != null)
+            tables[0] = old;
+        return tables;
     }
 
     private Comparator<K> getNaturalComparator () {
@@ -106,8 +335,12 @@ public class AVLHashMap <K, V> implements SimpleMap<K, V> {
             @Override public Iterator<K> getIterator (SimpleMap<K, V> map) {
                 return map.keyIterator();
             }
+
+            @Override public K getValue (Entry<K, V> entry) {
+                return entry.key;
+            }
         };
-        return new MapIterator<K>(buckets, keyIter);
+        return new MapIterator<K>(keyIter);
     }
 
     @Override public Iterator<V> valueIterator () {
@@ -115,70 +348,109 @@ public class AVLHashMap <K, V> implements SimpleMap<K, V> {
             @Override public Iterator<V> getIterator (SimpleMap<K, V> map) {
                 return map.valueIterator();
             }
-        };
-        return new MapIterator<V>(buckets, valueIter);
 
+            @Override public V getValue (Entry<K, V> entry) {
+                return entry.value;
+            }
+        };
+        return new MapIterator<V>(valueIter);
     }
 
     @Override public Set<K> keySet () {
         AVLSet<K> set = new AVLSet<K>(cmp);
-        for (int i = 0; i < buckets.length; i++)
-            if (!buckets[i].isEmpty())
-                set = set.merge(buckets[i].keySet());
+        Iterator<K> iter = keyIterator();
+        while (iter.hasNext())
+            set.add(iter.next());
         return set;
     }
 
     @Override public Collection<V> values () {
-        Collection<V> collection = new LinkedList<V>();
-        for (int i = 0; i < buckets.length; i++)
-            if (!buckets[i].isEmpty())
-                collection.addAll(buckets[i].values());
+        Collection<V> collection = new ArrayList<V>(size());
+        Iterator<V> iter = valueIterator();
+        while (iter.hasNext())
+            collection.add(iter.next());
         return collection;
     }
 
 
+    /**
+     * Par de un bucket con una sola clave
+     */
+    private static class Entry <K, V> {
+        private final K key;
+        private final V value;
+
+        public Entry (K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+
+    /**
+     * Recorre los buckets que quedan en la tabla anterior y luego los de la actual. No debe
+     * modificarse el mapa mientras se recorre, ya que el rehash mueve los pares de tabla.
+     */
     private class MapIterator <T> implements Iterator<T> {
-        private AVLMap<K, V>[] buckets;
+        private Object[][] tables;
+        private int t;
         private int i;
         private IteratorGetter<T> iterGetter;
-        private Iterator<T> iter;
+        private Iterator<T> iter;  // iterador del bucket actual si tiene mas de un par
+        private T next;
+        private boolean hasNext;
 
-        public MapIterator (AVLMap<K, V>[] buckets, IteratorGetter<T> iterGetter) {
+        public MapIterator (IteratorGetter<T> iterGetter) {
             this.iterGetter = iterGetter;
-            this.buckets = buckets;
-            i = -1;
-            iter = getNextIterator();
+            tables = tables();
+            advance();
         }
 
         /**
-         * Avanza el índice i y a partir de ahí busca el siguiente iterador
-         * correspondiente a un bucket no vacío.
+         * Busca el siguiente elemento: en el bucket actual si le quedan, o en el siguiente
+         * bucket no vacio, pasando a la tabla siguiente al terminar una.
          */
-        private Iterator<T> getNextIterator () {
-            i += 1;
-            while (i < buckets.length && buckets[i].isEmpty())
-                i++;
-            if (i < buckets.length)
-                return iterGetter.getIterator(buckets[i]);
-            return null;
+        private void advance () {
+            hasNext = true;
+            if (iter != null && iter.hasNext()) {
+                next = iter.next();
+                return;
+            }
+            iter = null;
+            for (; t < tables.length; t++, i = 0) {
+                Object[] table = tables[t];
+                while (i < table.length) {
+                    Object slot = table[i++];
+                    if (slot instanceof Entry) {
+                        next = iterGetter.getValue(AVLHashMap.this.<K, V>asEntry(slot));
+                        return;
+                    } else if (slot != null) {  // los buckets con mapa nunca estan vacios
+                        iter = iterGetter.getIterator(AVLHashMap.this.<K, V>asMap(slot));
+                        next = iter.next();
+                        return;
+                    }
+                }
+            }
+            hasNext = false;
         }
 
         @Override public boolean hasNext () {
-            return i < buckets.length;
+            return hasNext;
         }
 
         @Override public T next () {
            	if (!hasNext())
         		throw new NoSuchElementException();
-            T key = iter.next();
-            if (!iter.hasNext())
-                iter = getNextIterator();
-            return key;
+            T value = next;
+            advance();
+            return value;
         }
     }
 
 
     private abstract class IteratorGetter <T> {
         public abstract Iterator<T> getIterator (SimpleMap<K, V> map);
+
+        public abstract T getValue (Entry<K, V> entry);
     }
 }
@@ -136,6 +136,18 @@ public class AVLSet <T> implements Set<T> {
         return size;
     }
 
+    /**
+     * Devuelve el menor elemento del conjunto, o null si esta vacio
+     */
+    public T first () {
+        if (root == null)
+            return null;
+        Node<T> n = root;
+        while (n.hasLeftChild())
+            n = n.left;
+        return n.value;
+    }
+
     @Override
     public void clear () {
         root = null;
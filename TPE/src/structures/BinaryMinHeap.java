@@ -1,11 +1,18 @@
 package structures;
 
 import java.lang.reflect.Array;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 
+/**
+ * Heap binario de minimo. La capacidad inicial es solo una estimacion: el arreglo crece
+ * a medida que se encolan elementos, de modo que el heap puede llenarse de forma perezosa
+ * con los elementos que efectivamente se alcanzan.
+ */
 public class BinaryMinHeap <T> implements PriorityQueue<T> {
 
     private final static int HASH_CAPACITY_FACTOR = 3;
+    private final static int MIN_CAPACITY = 2;
 
     private PQNode<T>[] array;
     private SimpleMap<T, Integer> indexMap;
@@ -14,6 +21,7 @@ public class BinaryMinHeap <T> implements PriorityQueue<T> {
 
 
     @SuppressWarnings("unchecked") public BinaryMinHeap (int capacity) {
+        capacity = Math.max(capacity, MIN_CAPACITY);
         array = (PQNode<T>[]) Array.newInstance(PQNode.class, capacity);
         indexMap = new ClosedHash<T, Integer>(HASH_CAPACITY_FACTOR * capacity);
     }
@@ -21,6 +29,8 @@ public class BinaryMinHeap <T> implements PriorityQueue<T> {
     @Override public void enqueue (T elem, double priority) {
         PQNode<T> node = new PQNode<T>(elem, priority);
         int index = size();
+        if (index == array.length)
+            array = Arrays.copyOf(array, array.length * 2);
         size++;
         insert(node, index);
         moveUp(index);
@@ -74,6 +84,13 @@ public class BinaryMinHeap <T> implements PriorityQueue<T> {
         moveUp(index);
     }
 
+    /**
+     * Indica si el elemento se encuentra en la cola
+     */
+    public boolean contains (T elem) {
+        return indexMap.containsKey(elem);
+    }
+
     @Override public boolean isEmpty () {
         return indexMap.isEmpty();
     }
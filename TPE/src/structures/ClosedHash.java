@@ -9,7 +9,11 @@ public class ClosedHash <K, V> implements SimpleMap<K, V> {
     private Data<K, V>[] array;
         // se expande si la tabla está un dos tercios llena
     private int size;
+    private int deleted; // celdas borradas que todavia ocupan lugar en la tabla
+
     @SuppressWarnings("unchecked") public ClosedHash (int initialSize) {
+        if (initialSize < 1)
+            throw new IllegalArgumentException("Illegal size < 1");
         array = (Data<K, V>[]) Array.newInstance(Data.class, initialSize);
     }
 
@@ -18,17 +22,22 @@ public class ClosedHash <K, V> implements SimpleMap<K, V> {
     }
 
     @Override public void put (K key, V value) {
+        int found = findIndex(key);
+        if (found != -1) {
+            array[found].value = value;
+            return;
+        }
+        // La clave no esta: se usa la primera celda libre o borrada de la secuencia
         int index = hash(key);
-        while (array[index] != null && !array[index].isDeleted() && !key.equals(array[index].key)) {
+        while (array[index] != null && !array[index].isDeleted()) {
             index = nextIndex(index);
         }
-        if (array[index] == null || array[index].isDeleted()) {
-            array[index] = new Data<K, V>(key, value);
-            size += 1;
-            if (mustExpand())
-                expand();
-        } else
-            array[index].value = value;
+        if (array[index] != null)
+            deleted -= 1;
+        array[index] = new Data<K, V>(key, value);
+        size += 1;
+        if (mustExpand())
+            expand();
     }
 
     @Override public V get (K key) {
@@ -40,6 +49,7 @@ public class ClosedHash <K, V> implements SimpleMap<K, V> {
         int index = findIndex(key);
         if (index != -1) {
             size -= 1;
+            deleted += 1;
             array[index].delete();
         }
     }
@@ -87,6 +97,7 @@ public class ClosedHash <K, V> implements SimpleMap<K, V> {
     @SuppressWarnings("unchecked") @Override public void clear () {
         array = (Data<K, V>[]) Array.newInstance(Data.class, array.length);
         size = 0;
+        deleted = 0;
     }
 
     public Iterator<K> keyIterator () {
@@ -111,10 +122,15 @@ public class ClosedHash <K, V> implements SimpleMap<K, V> {
         return index + 1 == array.length ? 0 : index + 1;
     }
 
+    /**
+     * Reconstruye la tabla descartando las celdas borradas. Solo se duplica el tamaño si los
+     * elementos vivos la siguen llenando mas de la mitad de la carga maxima.
+     */
     @SuppressWarnings("unchecked") private void expand () {
         Data<K, V>[] aux = array;
-        int newArraySize = array.length * 2;
+        int newArraySize = size() > array.length * EXPAND_LOAD / 2 ? array.length * 2 : array.length;
         array = (Data<K, V>[]) Array.newInstance(Data.class, newArraySize);
+        deleted = 0;
         reHash(aux);
     }
 
@@ -126,8 +142,10 @@ public class ClosedHash <K, V> implements SimpleMap<K, V> {
         this.size = size;
     }
 
+    // Las celdas borradas tambien cuentan: si la tabla se llena de ellas las busquedas de
+    // claves ausentes no terminarian.
     private boolean mustExpand () {
-        return (double) size() / array.length > EXPAND_LOAD;
+        return (double) (size() + deleted) / array.length > EXPAND_LOAD;
     }
 
     private int findIndex (K key) {
@@ -0,0 +1,185 @@
+package structures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Heap binario de minimo especializado para elementos que son ids enteros densos
+ * (de 0 a la capacidad menos uno). Guarda los ids y sus prioridades en arreglos paralelos
+ * y la posicion de cada id en el heap en otro arreglo, por lo que encolar, desencolar y
+ * decrecer una prioridad no crean objetos.
+ * <p>
+ * Los metodos de {@link PriorityQueue} que reciben un {@link Integer} se proveen por
+ * compatibilidad; los de tipo primitivo evitan el boxing.
+ */
+public class IndexedMinHeap implements PriorityQueue<Integer> {
+
+    private static final int ABSENT = -1;
+
+    private int[] heap;          // id guardado en cada posicion del heap
+    private double[] priorities; // prioridad de cada posicion del heap
+    private int[] position;      // posicion en el heap de cada id, ABSENT si no esta
+    private int size;
+
+    /**
+     * @param capacity cantidad de ids distintos que puede contener el heap
+     */
+    public IndexedMinHeap (int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Illegal capacity < 1");
+        heap = new int[capacity];
+        priorities = new double[capacity];
+        position = new int[capacity];
+        Arrays.fill(position, ABSENT);
+    }
+
+    /**
+     * Asegura que el heap pueda contener ids de 0 a <i>capacity</i> - 1
+     */
+    public void ensureCapacity (int capacity) {
+        if (capacity <= position.length)
+            return;
+        int newCapacity = Math.max(capacity, position.length * 2);
+        int oldCapacity = position.length;
+        heap = Arrays.copyOf(heap, newCapacity);
+        priorities = Arrays.copyOf(priorities, newCapacity);
+        position = Arrays.copyOf(position, newCapacity);
+        Arrays.fill(position, oldCapacity, newCapacity, ABSENT);
+    }
+
+    /**
+     * Encola un id.
+     * @throws IllegalArgumentException si el id ya esta en la cola
+     */
+    public void enqueue (int id, double priority) {
+        if (position[id] != ABSENT)
+            throw new IllegalArgumentException("Ya existe " + id);
+        int i = size++;
+        heap[i] = id;
+        priorities[i] = priority;
+        position[id] = i;
+        moveUp(i);
+    }
+
+    /**
+     * Desencola el id de menor prioridad.
+     * @throws NoSuchElementException Si la cola está vacía.
+     */
+    public int dequeueId () {
+        if (isEmpty())
+            throw new NoSuchElementException("Cola vacia");
+        int id = heap[0];
+        position[id] = ABSENT;
+        size--;
+        if (size > 0) {
+            set(0, heap[size], priorities[size]); // se sube el último elemento
+            moveDown(0);  // se baja
+        }
+        return id;
+    }
+
+    /**
+     * Devuelve el id de menor prioridad sin desencolarlo
+     */
+    public int headId () {
+        if (isEmpty())
+            throw new NoSuchElementException("Cola vacia");
+        return heap[0];
+    }
+
+    public double getPriority (int id) {
+        if (!contains(id))
+            throw new NoSuchElementException("No existe " + id);
+        return priorities[position[id]];
+    }
+
+    public void decreasePriority (int id, double priority) {
+        if (!contains(id))
+            throw new NoSuchElementException("No existe " + id);
+        int i = position[id];
+        if (priorities[i] <= priority)
+            throw new IllegalArgumentException("Nueva prioridad mayor o igual a la existente");
+        priorities[i] = priority;
+        moveUp(i);
+    }
+
+    /**
+     * Indica si el id se encuentra en la cola
+     */
+    public boolean contains (int id) {
+        return id >= 0 && id < position.length && position[id] != ABSENT;
+    }
+
+    /**
+     * Vacia la cola. El costo es proporcional a la cantidad de elementos encolados.
+     */
+    public void clear () {
+        for (int i = 0; i < size; i++)
+            position[heap[i]] = ABSENT;
+        size = 0;
+    }
+
+    @Override public void enqueue (Integer elem, double priority) {
+        enqueue(elem.intValue(), priority);
+    }
+
+    @Override public Integer dequeue () {
+        return dequeueId();
+    }
+
+    @Override public double getPriority (Integer elem) {
+        return getPriority(elem.intValue());
+    }
+
+    @Override public void decreasePriority (Integer elem, double priority) {
+        decreasePriority(elem.intValue(), priority);
+    }
+
+    @Override public double minPriority () {
+        if (isEmpty())
+            throw new NoSuchElementException("Cola vacía");
+        return priorities[0];
+    }
+
+    @Override public int size () {
+        return size;
+    }
+
+    @Override public boolean isEmpty () {
+        return size == 0;
+    }
+
+    private void set (int i, int id, double priority) {
+        heap[i] = id;
+        priorities[i] = priority;
+        position[id] = i;
+    }
+
+    private void moveUp (int i) {
+        int id = heap[i];
+        double priority = priorities[i];
+        while (i != 0) {
+            int parent = (i - 1) / 2;
+            if (priority >= priorities[parent])
+                break;
+            set(i, heap[parent], priorities[parent]);
+            i = parent;
+        }
+        set(i, id, priority);
+    }
+
+    private void moveDown (int i) {
+        int id = heap[i];
+        double priority = priorities[i];
+        int child;
+        while ((child = 2 * i + 1) < size) { // tiene hijos
+            if (child + 1 < size && priorities[child + 1] < priorities[child])
+                child++;
+            if (priority <= priorities[child])
+                break;
+            set(i, heap[child], priorities[child]); // subo el hijo
+            i = child;
+        }
+        set(i, id, priority);
+    }
+}
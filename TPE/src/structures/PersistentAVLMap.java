@@ -0,0 +1,140 @@
+package structures;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Mapa sobre un {@link PersistentAVLSet}: cada cambio copia O(log n) nodos y los iteradores
+ * recorren la version del momento en que se crearon.
+ * @see AVLMap
+ */
+public class PersistentAVLMap <K, V> implements SimpleMap<K, V> {
+
+    private PersistentAVLSet<Node<K, V>> set;
+    private Comparator<K> cmp;
+
+    public PersistentAVLMap () {
+        this(new Comparator<K>() {
+            @SuppressWarnings("unchecked") @Override public int compare (K o1, K o2) {
+                return ((Comparable<K>) o1).compareTo(o2);
+            }
+        });
+    }
+
+    public PersistentAVLMap (Comparator<K> cmp) {
+        this.cmp = cmp;
+        set = new PersistentAVLSet<>(new Comparator<Node<K, V>>() {
+            @Override public int compare (Node<K, V> o1, Node<K, V> o2) {
+                return PersistentAVLMap.this.cmp.compare(o1.key, o2.key);
+            }
+        });
+    }
+
+    private PersistentAVLMap (Comparator<K> cmp, PersistentAVLSet<Node<K, V>> set) {
+        this.cmp = cmp;
+        this.set = set;
+    }
+
+    /**
+     * Devuelve en O(1) un mapa con los pares actuales, independiente de este
+     */
+    public PersistentAVLMap<K, V> snapshot () {
+        return new PersistentAVLMap<K, V>(cmp, set.snapshot());
+    }
+
+    @Override public void put (K key, V value) {
+        set.addAndReplace(new Node<K, V>(key, value));
+    }
+
+    @Override public V get (K key) {
+        Node<K, V> node = set.find(new Node<K, V>(key, null));
+        return node == null ? null : node.value;
+    }
+
+    @Override public void remove (K key) {
+        set.remove(new Node<K, V>(key, null));
+    }
+
+    @Override public boolean containsKey (K key) {
+        return set.contains(new Node<K, V>(key, null));
+    }
+
+    @Override public boolean containsValue (V value) {
+        Iterator<V> iter = valueIterator();
+        while (iter.hasNext())
+            if (iter.next().equals(value))
+                return true;
+        return false;
+    }
+
+    @Override public int size () {
+        return set.size();
+    }
+
+    @Override public boolean isEmpty () {
+        return set.isEmpty();
+    }
+
+    @Override public void clear () {
+        set.clear();
+    }
+
+    @Override public Iterator<K> keyIterator () {
+        final Iterator<Node<K, V>> iter = set.iterator();
+        return new Iterator<K>() {
+            @Override public boolean hasNext () {
+                return iter.hasNext();
+            }
+
+            @Override public K next () {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return iter.next().key;
+            }
+        };
+    }
+
+    @Override public Iterator<V> valueIterator () {
+        final Iterator<Node<K, V>> iter = set.iterator();
+        return new Iterator<V>() {
+            @Override public boolean hasNext () {
+                return iter.hasNext();
+            }
+
+            @Override public V next () {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return iter.next().value;
+            }
+        };
+    }
+
+    @Override public PersistentAVLSet<K> keySet () {
+        Iterator<K> iter = keyIterator();
+        PersistentAVLSet<K> keys = new PersistentAVLSet<K>(cmp);
+        while (iter.hasNext())
+            keys.add(iter.next());
+        return keys;
+    }
+
+    @Override public Collection<V> values () {
+        Iterator<V> iter = valueIterator();
+        Collection<V> collection = new ArrayList<V>(size());
+        while (iter.hasNext())
+            collection.add(iter.next());
+        return collection;
+    }
+
+    private static class Node <K, V> {
+        private final K key;
+        private final V value;
+
+        public Node (K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
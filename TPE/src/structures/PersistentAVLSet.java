@@ -0,0 +1,317 @@
+package structures;
+
+import java.lang.reflect.Array;
+import java.util.*;
+
+/**
+ * AVL con nodos inmutables. Agregar o eliminar copia solo los nodos del camino desde la raiz
+ * hasta el cambio, O(log n), y comparte el resto con las versiones anteriores.
+ * <p>
+ * Un iterador recorre la version del momento en que se creo, aunque despues se modifique el
+ * conjunto, y {@link #snapshot()} devuelve en O(1) una copia independiente.
+ * @see AVLSet
+ */
+public class PersistentAVLSet <T> implements Set<T> {
+
+    private Node<T> root;
+    private Comparator<T> cmp;
+    private int size;
+
+    public PersistentAVLSet () {
+        cmp = new Comparator<T>() {
+            @SuppressWarnings("unchecked") @Override public int compare (T o1, T o2) {
+                return ((Comparable<T>) o1).compareTo(o2);
+            }
+        };
+    }
+
+    public PersistentAVLSet (Comparator<T> c) {
+        cmp = c;
+    }
+
+    private PersistentAVLSet (Comparator<T> c, Node<T> root, int size) {
+        cmp = c;
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Devuelve un conjunto con los elementos actuales que no cambia al modificar este, ni este
+     * al modificar el devuelto. No copia ningun nodo.
+     */
+    public PersistentAVLSet<T> snapshot () {
+        return new PersistentAVLSet<T>(cmp, root, size);
+    }
+
+    @Override
+    public boolean add (T value) {
+        int prevSize = size();
+        root = add(value, root, false);
+        return prevSize != size();
+    }
+
+    /**
+     * Agrega un nuevo elemento y si ya existe lo reemplaza por value.
+     * @param value - valor a agregar
+     * @return true si el valor no existía.
+     * @see AVLSet#addAndReplace(Object)
+     */
+    public boolean addAndReplace (T value) {
+        int prevSize = size();
+        root = add(value, root, true);
+        return prevSize != size();
+    }
+
+    /**
+     * Devuelve el subarbol con el valor agregado. Si no cambia devuelve el mismo nodo, asi el
+     * padre tampoco se copia.
+     */
+    private Node<T> add (T value, Node<T> n, boolean replace) {
+        if (n == null) {
+            size += 1;
+            return new Node<T>(value, null, null);
+        }
+        int comp = cmp.compare(value, n.value);
+        if (comp > 0) {
+            Node<T> right = add(value, n.right, replace);
+            return right == n.right ? n : balance(n.value, n.left, right);
+        } else if (comp < 0) {
+            Node<T> left = add(value, n.left, replace);
+            return left == n.left ? n : balance(n.value, left, n.right);
+        }
+        return replace ? new Node<T>(value, n.left, n.right) : n;
+    }
+
+    public boolean addAll (Collection<? extends T> c) {
+        boolean changed = false;
+        for (T each : c)
+            changed = add(each) || changed;
+        return changed;
+    }
+
+    public boolean containsAll (Collection<?> c) {
+        for (Object each : c)
+            if (!contains(each))
+                return false;
+        return true;
+    }
+
+    public boolean isEmpty () {
+        return root == null;
+    }
+
+    public Iterator<T> iterator () {
+        return new InorderIterator<T>(root);
+    }
+
+    @SuppressWarnings("unchecked") public boolean remove (Object value) {
+        int prevSize = size();
+        root = remove((T) value, root);
+        return prevSize != size();
+    }
+
+    private Node<T> remove (T value, Node<T> n) {
+        if (n == null)
+            return null;
+
+        int comp = cmp.compare(value, n.value);
+        if (comp < 0) {
+            Node<T> left = remove(value, n.left);
+            return left == n.left ? n : balance(n.value, left, n.right);
+        } else if (comp > 0) {
+            Node<T> right = remove(value, n.right);
+            return right == n.right ? n : balance(n.value, n.left, right);
+        }
+
+        size -= 1;
+        if (n.left == null)
+            return n.right;
+        if (n.right == null)
+            return n.left;
+        return balance(min(n.right), n.left, removeMin(n.right));
+    }
+
+    private T min (Node<T> n) {
+        while (n.left != null)
+            n = n.left;
+        return n.value;
+    }
+
+    private Node<T> removeMin (Node<T> n) {
+        if (n.left == null)
+            return n.right;
+        return balance(n.value, removeMin(n.left), n.right);
+    }
+
+    public boolean removeAll (Collection<?> c) {
+        boolean changed = false;
+        for (Object each : c)
+            changed = remove(each) || changed;
+        return changed;
+    }
+
+    public boolean retainAll (Collection<?> c) {
+        boolean changed = false;
+        for (Object each : this)    // el iterador no ve las eliminaciones
+            if (!c.contains(each)) {
+                changed = true;
+                remove(each);
+            }
+        return changed;
+    }
+
+    public int size () {
+        return size;
+    }
+
+    /**
+     * Devuelve el menor elemento del conjunto, o null si esta vacio
+     */
+    public T first () {
+        return root == null ? null : min(root);
+    }
+
+    @Override
+    public void clear () {
+        root = null;
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked") public boolean contains (Object value) {
+        return find((T) value) != null;
+    }
+
+    public Object[] toArray () {
+        Object[] arr = new Object[size()];
+        int i = 0;
+        for (Object each : this)
+            arr[i++] = each;
+        return arr;
+    }
+
+    @SuppressWarnings("unchecked") public <E> E[] toArray (E[] a) {
+        if (a.length < size())
+            a = (E[]) Array.newInstance(a.getClass().getComponentType(), size());
+
+        int i = 0;
+        for (Object each : this)
+            a[i++] = (E) each;
+
+        return a;
+    }
+
+    /**
+     * Devuelve el elemento igual a value segun el comparador, o null si no existe
+     * @see AVLSet#find(Object)
+     */
+    public T find (T value) {
+        Node<T> n = root;
+        while (n != null) {
+            int comp = cmp.compare(value, n.value);
+            if (comp > 0)
+                n = n.right;
+            else if (comp < 0)
+                n = n.left;
+            else
+                return n.value;
+        }
+        return null;
+    }
+
+    /**
+     * Devuelve un iterador con los elementos mayores o iguales a value en orden ascendente
+     *
+     * @param value - valor a comparar. No hace falta que exista en el set.
+     * @return Iterador sobre los elementos mayores o iguales a value
+     */
+    public Iterator<T> higherIterator (T value) {
+        Node<T> n = root;
+        while (n != null && cmp.compare(value, n.value) > 0)
+            n = n.right;
+        InorderIterator<T> iter = new InorderIterator<T>(n);
+        while (iter.hasNext() && cmp.compare(iter.peek(), value) < 0)
+            iter.next();
+        return iter;
+    }
+
+    /**
+     * Arma un nodo con los hijos dados, rotando si sus alturas difieren en mas de uno. Los
+     * hijos ya estan balanceados y difieren a lo sumo en dos, como despues de un cambio.
+     */
+    private Node<T> balance (T value, Node<T> left, Node<T> right) {
+        int lh = height(left);
+        int rh = height(right);
+        if (lh > rh + 1) {
+            if (height(left.left) >= height(left.right))
+                return new Node<T>(left.value, left.left, new Node<T>(value, left.right, right));
+            Node<T> lr = left.right;
+            return new Node<T>(lr.value, new Node<T>(left.value, left.left, lr.left),
+                new Node<T>(value, lr.right, right));
+        } else if (rh > lh + 1) {
+            if (height(right.right) >= height(right.left))
+                return new Node<T>(right.value, new Node<T>(value, left, right.left), right.right);
+            Node<T> rl = right.left;
+            return new Node<T>(rl.value, new Node<T>(value, left, rl.left),
+                new Node<T>(right.value, rl.right, right.right));
+        }
+        return new Node<T>(value, left, right);
+    }
+
+    private static int height (Node<?> n) {
+        return n == null ? -1 : n.height;
+    }
+
+    @Override public String toString () {
+        StringBuffer str = new StringBuffer("{");
+        for (T each : this)
+            str.append(each.toString() + " ");
+        str.append("}");
+        return str.toString();
+    }
+
+    private static class Node <T> {
+        private final T value;
+        private final Node<T> left;
+        private final Node<T> right;
+        private final int height;
+
+        public Node (T value, Node<T> left, Node<T> right) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            height = Integer.max(PersistentAVLSet.height(left), PersistentAVLSet.height(right)) + 1;
+        }
+    }
+
+    private static class InorderIterator <T> implements Iterator<T> {
+        // arriba del stack está siempre el nodo cuyo valor devolver
+        private Deque<Node<T>> stack = new ArrayDeque<>();
+
+        public InorderIterator (Node<T> root) {
+            pushLeft(root);
+        }
+
+        private void pushLeft (Node<T> n) {
+            for (; n != null; n = n.left)
+                stack.push(n);
+        }
+
+        private T peek () {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return stack.peek().value;
+        }
+
+        @Override public boolean hasNext () {
+            return !stack.isEmpty();
+        }
+
+        @Override public T next () {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            Node<T> t = stack.pop();
+            pushLeft(t.right);
+            return t.value;
+        }
+    }
+}
@@ -39,6 +39,18 @@ public class AVLSetTest {
         }
     }
 
+    @Test public void firstTest () {
+        assertTrue(set.first().equals(inserted.first()));
+        for (int i = 0; i < RANDOMS / 2; i++) {
+            int r = rand.nextInt(RANDOMS);
+            set.remove(r);
+            inserted.remove(r);
+            assertTrue(set.first().equals(inserted.first()));
+        }
+        set.clear();
+        assertTrue(set.first() == null);
+    }
+
     @Test public void inorderIteratorTest () {
         int prev = -1; // solo hay valores positivos en el set
         int cant = 0;
@@ -0,0 +1,103 @@
+package testing;
+
+import flightassistant.FlightAssistant;
+import flightassistant.RoutePriority;
+import flightassistant.RouteQuery;
+import flightassistant.RouteResult;
+import flightassistant.Ticket;
+import org.junit.Test;
+import utils.Day;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BatchRoutesTest {
+
+    private static final int NETWORKS = 5;
+    private static final int QUERIES = 200;
+    private static final int THREADS = 4;
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * Los resultados en paralelo vuelven en el orden de los pedidos y son los mismos que
+     * resolviendo los pedidos de a uno
+     */
+    @Test public void testSameAsSequential () {
+        ForkJoinPool pool = new ForkJoinPool(THREADS);
+        try {
+            for (int seed = 0; seed < NETWORKS; seed++) {
+                RandomNetwork network = new RandomNetwork(seed, RandomNetwork.AIRPORTS,
+                    RandomNetwork.FLIGHTS);
+                checkBatch(network, pool);
+                network.removeFlights(RandomNetwork.FLIGHTS / 5);
+                checkBatch(network, pool);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void checkBatch (RandomNetwork network, ForkJoinPool pool) {
+        FlightAssistant fa = network.getAssistant();
+        RoutePriority[] priorities = RoutePriority.values();
+        List<RouteQuery> queries = new ArrayList<>();
+        for (int q = 0; q < QUERIES; q++) {
+            RoutePriority priority = priorities[network.getRandom().nextInt(priorities.length)];
+            queries.add(new RouteQuery(network.randomAirport(), network.randomAirport(), priority,
+                network.randomDays()));
+        }
+        queries.add(new RouteQuery("ZZZ", network.randomAirport(), RoutePriority.PRICE,
+            new LinkedList<Day>()));
+
+        List<RouteResult> results = fa.findRoutes(queries, pool);
+        assertEquals(queries.size(), results.size());
+        for (int i = 0; i < queries.size(); i++) {
+            RouteQuery query = queries.get(i);
+            RouteResult result = results.get(i);
+            assertSame(query, result.getQuery());
+            assertTrue(result.getElapsedNanos() >= 0);
+            List<Ticket> expected = sequential(fa, query);
+            if (expected == null) {
+                assertNull(result.getRoute());
+                continue;
+            }
+            List<Ticket> route = result.getRoute();
+            assertEquals(expected.isEmpty(), route.isEmpty());
+            assertTrue(RandomNetwork.isConnected(route));
+            assertEquals(weight(expected, query.getPriority()),
+                weight(route, query.getPriority()), EPSILON);
+        }
+    }
+
+    private List<Ticket> sequential (FlightAssistant fa, RouteQuery query) {
+        String orig = query.getOrigin();
+        String dest = query.getDestination();
+        List<Day> days = new LinkedList<>(query.getDays());
+        switch (query.getPriority()) {
+            case PRICE:
+                return fa.findCheapestPath(orig, dest, days);
+            case FLIGHT_TIME:
+                return fa.findQuickestPath(orig, dest, days);
+            default:
+                return fa.findShortestTotalTimeRoute(orig, dest, days);
+        }
+    }
+
+    private double weight (List<Ticket> route, RoutePriority priority) {
+        switch (priority) {
+            case PRICE:
+                return RandomNetwork.price(route);
+            case FLIGHT_TIME:
+                return RandomNetwork.airtime(route);
+            default:
+                return RandomNetwork.totalTime(route);
+        }
+    }
+}
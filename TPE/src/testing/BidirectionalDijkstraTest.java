@@ -0,0 +1,92 @@
+package testing;
+
+import flightassistant.Airport;
+import flightassistant.AirtimeWeighter;
+import flightassistant.FlightAssistant;
+import flightassistant.FlightGraph;
+import flightassistant.InfinityDijkstra;
+import flightassistant.OriginAirtimeWeighter;
+import flightassistant.OriginPriceWeighter;
+import flightassistant.PriceWeighter;
+import flightassistant.SearchContext;
+import flightassistant.StaticWeighter;
+import flightassistant.Ticket;
+import org.junit.Test;
+import utils.Day;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BidirectionalDijkstraTest {
+
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * La busqueda desde ambos extremos encuentra caminos del mismo peso que la busqueda desde el
+     * origen, con y sin dias de salida
+     */
+    @Test public void testSameWeightAsDijkstra () {
+        RandomNetwork.checkNetworks(new RandomNetwork.QueryCheck() {
+            private SearchContext forward = new SearchContext();
+            private SearchContext backward = new SearchContext();
+
+            @Override public void check (RandomNetwork network, String orig, String dest,
+                List<Day> days) {
+                FlightGraph graph = network.getAssistant().getGraph();
+                Airport origin = graph.getAirport(orig);
+                Airport destination = graph.getAirport(dest);
+                checkPaths(graph, origin, destination, days, true, forward, backward);
+                checkPaths(graph, origin, destination, days, false, forward, backward);
+            }
+        });
+    }
+
+    /**
+     * Con la busqueda bidireccional activada el asistente devuelve caminos del mismo peso
+     */
+    @Test public void testFlightAssistant () {
+        RandomNetwork.checkNetworks(new RandomNetwork.QueryCheck() {
+            @Override public void check (RandomNetwork network, String orig, String dest,
+                List<Day> days) {
+                FlightAssistant fa = network.getAssistant();
+                fa.setBidirectional(false);
+                List<Ticket> cheapest = fa.findCheapestPath(orig, dest, days);
+                List<Ticket> quickest = fa.findQuickestPath(orig, dest, days);
+                fa.setBidirectional(true);
+                assertSameWeight(cheapest, fa.findCheapestPath(orig, dest, days), days, true);
+                assertSameWeight(quickest, fa.findQuickestPath(orig, dest, days), days, false);
+            }
+        });
+    }
+
+    private void checkPaths (FlightGraph graph, Airport origin, Airport destination,
+        List<Day> days, boolean price, SearchContext forward, SearchContext backward) {
+        StaticWeighter weighter = price ? PriceWeighter.WEIGHTER : AirtimeWeighter.WEIGHTER;
+        StaticWeighter originWeighter = days.isEmpty() ? null
+            : price ? new OriginPriceWeighter(days) : new OriginAirtimeWeighter(days);
+        List<Ticket> expected = InfinityDijkstra.minPath(forward, graph, origin, destination,
+            weighter, originWeighter, null);
+        List<Ticket> path = InfinityDijkstra.minPathBidirectional(forward, backward, graph,
+            origin, destination, weighter, originWeighter);
+        assertSameWeight(expected, path, days, price);
+    }
+
+    /**
+     * Verifica que el camino pese lo mismo que el esperado, que sea continuo y que el primer
+     * vuelo salga alguno de los dias pedidos
+     */
+    private void assertSameWeight (List<Ticket> expected, List<Ticket> path, List<Day> days,
+        boolean price) {
+        assertEquals(expected.isEmpty(), path.isEmpty());
+        if (path.isEmpty())
+            return;
+        assertTrue(RandomNetwork.isConnected(path));
+        assertTrue(days.isEmpty() || days.contains(path.get(0).getDeparture().getDay()));
+        if (price)
+            assertEquals(RandomNetwork.price(expected), RandomNetwork.price(path), EPSILON);
+        else
+            assertEquals(RandomNetwork.airtime(expected), RandomNetwork.airtime(path));
+    }
+}
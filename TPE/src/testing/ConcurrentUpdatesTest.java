@@ -0,0 +1,107 @@
+package testing;
+
+import flightassistant.FlightAssistant;
+import flightassistant.Ticket;
+import org.junit.Test;
+import utils.Day;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentUpdatesTest {
+
+    private static final long SEED = 7;
+    private static final int READERS = 4;
+    private static final int ROUNDS = 40;
+    private static final int CHANGES = 10;    // vuelos eliminados y agregados por ronda
+    private static final int QUERIES = 100;
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * Varios hilos buscan caminos mientras otro agrega y elimina vuelos. Ninguna busqueda falla
+     * y al terminar el asistente queda igual que aplicando los mismos cambios sin consultas.
+     */
+    @Test public void testQueriesDuringUpdates () throws InterruptedException {
+        final RandomNetwork network = new RandomNetwork(SEED, RandomNetwork.AIRPORTS,
+            RandomNetwork.FLIGHTS);
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        final AtomicBoolean done = new AtomicBoolean();
+
+        Thread[] readers = new Thread[READERS];
+        for (int i = 0; i < READERS; i++) {
+            final Random random = new Random(i);
+            readers[i] = new Thread(new Runnable() {
+                @Override public void run () {
+                    try {
+                        while (!done.get())
+                            query(network, random);
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }
+            });
+            readers[i].start();
+        }
+
+        for (int round = 0; round < ROUNDS; round++)
+            update(network);
+        done.set(true);
+        for (Thread reader : readers)
+            reader.join();
+        assertTrue(errors.toString(), errors.isEmpty());
+
+        RandomNetwork replay = new RandomNetwork(SEED, RandomNetwork.AIRPORTS,
+            RandomNetwork.FLIGHTS);
+        for (int round = 0; round < ROUNDS; round++)
+            update(replay);
+        assertSameState(replay.getAssistant(), network.getAssistant(), network);
+    }
+
+    private void update (RandomNetwork network) {
+        network.removeFlights(CHANGES);
+        network.insertFlights(CHANGES);
+    }
+
+    /**
+     * Busca caminos entre dos aeropuertos al azar con los tres criterios
+     */
+    private void query (RandomNetwork network, Random random) {
+        FlightAssistant fa = network.getAssistant();
+        String orig = network.randomAirport(random);
+        String dest = network.randomAirport(random);
+        if (orig.equals(dest))
+            return;
+        List<Day> days = new LinkedList<>();
+        assertTrue(RandomNetwork.isConnected(fa.findCheapestPath(orig, dest, days)));
+        assertTrue(RandomNetwork.isConnected(fa.findQuickestPath(orig, dest, days)));
+        assertTrue(RandomNetwork.isConnected(fa.findShortestTotalTimeRoute(orig, dest, days)));
+    }
+
+    private void assertSameState (FlightAssistant expected, FlightAssistant fa,
+        RandomNetwork network) {
+        assertEquals(expected.getFlights().size(), fa.getFlights().size());
+        assertEquals(expected.getGraph().edgeCount(), fa.getGraph().edgeCount());
+        Random random = new Random(SEED);
+        for (int q = 0; q < QUERIES; q++) {
+            String orig = network.randomAirport(random);
+            String dest = network.randomAirport(random);
+            if (orig.equals(dest))
+                continue;
+            List<Day> days = new LinkedList<>();
+            assertEquals(RandomNetwork.price(expected.findCheapestPath(orig, dest, days)),
+                RandomNetwork.price(fa.findCheapestPath(orig, dest, days)), EPSILON);
+            assertEquals(RandomNetwork.airtime(expected.findQuickestPath(orig, dest, days)),
+                RandomNetwork.airtime(fa.findQuickestPath(orig, dest, days)));
+            List<Ticket> route = expected.findShortestTotalTimeRoute(orig, dest, days);
+            assertEquals(RandomNetwork.totalTime(route),
+                RandomNetwork.totalTime(fa.findShortestTotalTimeRoute(orig, dest, days)));
+        }
+    }
+}
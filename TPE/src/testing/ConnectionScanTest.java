@@ -0,0 +1,12 @@
+package testing;
+
+import flightassistant.TotalTimeEngine;
+import org.junit.Test;
+
+public class ConnectionScanTest {
+
+    @Test public void testSameTotalTimeAsDijkstra () {
+        RandomNetwork.checkNetworks(
+            RandomNetwork.sameTotalTimeAsDijkstra(TotalTimeEngine.CONNECTION_SCAN));
+    }
+}
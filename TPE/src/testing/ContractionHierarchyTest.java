@@ -0,0 +1,96 @@
+package testing;
+
+import flightassistant.Airport;
+import flightassistant.AirtimeWeighter;
+import flightassistant.ContractionHierarchy;
+import flightassistant.FlightAssistant;
+import flightassistant.FlightGraph;
+import flightassistant.InfinityDijkstra;
+import flightassistant.PriceWeighter;
+import flightassistant.SearchContext;
+import flightassistant.Ticket;
+import org.junit.Test;
+import utils.Day;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ContractionHierarchyTest {
+
+    private static final double EPSILON = 1e-6;
+
+    @Test public void testSameWeightAsDijkstra () {
+        RandomNetwork.checkNetworks(new HierarchyCheck());
+    }
+
+    /**
+     * Con la jerarquia activada el asistente devuelve caminos del mismo peso, tambien despues de
+     * eliminar vuelos
+     */
+    @Test public void testFlightAssistant () {
+        RandomNetwork.checkNetworks(new RandomNetwork.QueryCheck() {
+            @Override public void check (RandomNetwork network, String orig, String dest,
+                List<Day> days) {
+                checkAssistant(network.getAssistant(), orig, dest);
+            }
+        });
+    }
+
+    /**
+     * Compara las jerarquias con Dijkstra. Se construyen de nuevo sobre cada foto.
+     */
+    private class HierarchyCheck extends RandomNetwork.QueryCheck {
+        private FlightGraph graph;
+        private ContractionHierarchy byPrice;
+        private ContractionHierarchy byAirtime;
+        private SearchContext forward = new SearchContext();
+        private SearchContext backward = new SearchContext();
+
+        @Override public void prepare (RandomNetwork network) {
+            graph = network.getAssistant().getGraph();
+            byPrice = new ContractionHierarchy(graph, PriceWeighter.WEIGHTER);
+            byAirtime = new ContractionHierarchy(graph, AirtimeWeighter.WEIGHTER);
+        }
+
+        @Override public void check (RandomNetwork network, String orig, String dest,
+            List<Day> days) {
+            Airport origin = graph.getAirport(orig);
+            Airport destination = graph.getAirport(dest);
+
+            List<Ticket> expected = InfinityDijkstra.minPath(forward, graph, origin, destination,
+                PriceWeighter.WEIGHTER);
+            List<Ticket> path = byPrice.minPath(forward, backward, origin, destination);
+            assertSameWeight(expected, path, true);
+
+            expected = InfinityDijkstra.minPath(forward, graph, origin, destination,
+                AirtimeWeighter.WEIGHTER);
+            path = byAirtime.minPath(forward, backward, origin, destination);
+            assertSameWeight(expected, path, false);
+        }
+    }
+
+    /**
+     * Las jerarquias solo se usan sin dias de salida
+     */
+    private void checkAssistant (FlightAssistant fa, String orig, String dest) {
+        List<Day> days = new LinkedList<>();
+        fa.setContractionHierarchy(false);
+        List<Ticket> cheapest = fa.findCheapestPath(orig, dest, days);
+        List<Ticket> quickest = fa.findQuickestPath(orig, dest, days);
+        fa.setContractionHierarchy(true);
+        assertSameWeight(cheapest, fa.findCheapestPath(orig, dest, days), true);
+        assertSameWeight(quickest, fa.findQuickestPath(orig, dest, days), false);
+    }
+
+    private void assertSameWeight (List<Ticket> expected, List<Ticket> path, boolean price) {
+        assertEquals(expected.isEmpty(), path.isEmpty());
+        assertTrue(RandomNetwork.isConnected(path));
+        if (price)
+            assertEquals(RandomNetwork.price(expected), RandomNetwork.price(path), EPSILON);
+        else
+            assertEquals(RandomNetwork.airtime(expected), RandomNetwork.airtime(path));
+    }
+}
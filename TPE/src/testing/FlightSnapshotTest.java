@@ -0,0 +1,99 @@
+package testing;
+
+import flightassistant.FlightAssistant;
+import flightassistant.FlightSnapshot;
+import flightassistant.Ticket;
+import org.junit.Test;
+import utils.Day;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FlightSnapshotTest {
+
+    private static final int NETWORKS = 5;
+    private static final int CHANGES = RandomNetwork.FLIGHTS / 5;
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * Una foto tomada antes de agregar y eliminar vuelos sigue respondiendo igual que antes de
+     * los cambios, mientras que la foto nueva responde igual que una red armada con los cambios
+     */
+    @Test public void testSnapshotKeepsAnswers () {
+        for (int seed = 0; seed < NETWORKS; seed++) {
+            RandomNetwork network = newNetwork(seed);
+            RandomNetwork before = newNetwork(seed);
+            RandomNetwork after = newNetwork(seed);
+            FlightAssistant fa = network.getAssistant();
+
+            List<String> origs = new ArrayList<>();
+            List<String> dests = new ArrayList<>();
+            List<List<Day>> days = new ArrayList<>();
+            for (int q = 0; q < RandomNetwork.QUERIES; q++) {
+                String orig = before.randomAirport();
+                String dest = before.randomAirport();
+                if (orig.equals(dest))
+                    continue;
+                origs.add(orig);
+                dests.add(dest);
+                days.add(before.randomDays());
+            }
+
+            FlightSnapshot old = fa.snapshot();
+            List<List<List<Ticket>>> answers = new ArrayList<>();
+            for (int q = 0; q < origs.size(); q++)
+                answers.add(answers(old, origs.get(q), dests.get(q), days.get(q)));
+            int edges = old.getGraph().edgeCount();
+
+            update(network);
+            update(after);
+            FlightSnapshot current = fa.snapshot();
+            assertTrue(current.getVersion() > old.getVersion());
+            assertEquals(edges, old.getGraph().edgeCount());
+
+            for (int q = 0; q < origs.size(); q++) {
+                String orig = origs.get(q);
+                String dest = dests.get(q);
+                List<Day> queryDays = days.get(q);
+                List<List<Ticket>> oldAnswers = answers(old, orig, dest, queryDays);
+                assertEquals(answers.get(q), oldAnswers);
+                assertSameWeights(answers(before.getAssistant().snapshot(), orig, dest,
+                    queryDays), oldAnswers);
+                assertSameWeights(answers(after.getAssistant().snapshot(), orig, dest,
+                    queryDays), answers(current, orig, dest, queryDays));
+            }
+        }
+    }
+
+    private RandomNetwork newNetwork (long seed) {
+        return new RandomNetwork(seed, RandomNetwork.AIRPORTS, RandomNetwork.FLIGHTS);
+    }
+
+    private void update (RandomNetwork network) {
+        network.removeFlights(CHANGES);
+        network.insertFlights(CHANGES);
+    }
+
+    /**
+     * Devuelve el camino mas barato, el mas rapido y el de menor tiempo total
+     */
+    private List<List<Ticket>> answers (FlightSnapshot snapshot, String orig, String dest,
+        List<Day> days) {
+        List<List<Ticket>> answers = new ArrayList<>();
+        answers.add(snapshot.findCheapestPath(orig, dest, new ArrayList<>(days)));
+        answers.add(snapshot.findQuickestPath(orig, dest, new ArrayList<>(days)));
+        answers.add(snapshot.findShortestTotalTimeRoute(orig, dest, new ArrayList<>(days)));
+        return answers;
+    }
+
+    private void assertSameWeights (List<List<Ticket>> expected, List<List<Ticket>> answers) {
+        assertEquals(RandomNetwork.price(expected.get(0)), RandomNetwork.price(answers.get(0)),
+            EPSILON);
+        assertEquals(RandomNetwork.airtime(expected.get(1)), RandomNetwork.airtime(answers.get(1)));
+        assertEquals(RandomNetwork.totalTime(expected.get(2)),
+            RandomNetwork.totalTime(answers.get(2)));
+    }
+}
@@ -0,0 +1,98 @@
+package testing;
+
+import org.junit.Before;
+import org.junit.Test;
+import structures.IndexedMinHeap;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IndexedMinHeapTest {
+
+    private IndexedMinHeap heap;
+
+    @Before public void setUp () throws Exception {
+        heap = new IndexedMinHeap(10);
+    }
+
+    @Test public void testCorrectQueuing () {
+        heap.enqueue(7, 1122);
+        heap.enqueue(2, 2.0);
+        heap.enqueue(9, 149499);
+        heap.enqueue(1, 1.3);
+        heap.enqueue(3, 10);
+        heap.enqueue(4, 13.1);
+        heap.enqueue(0, 0);
+        heap.enqueue(6, 29.33);
+        heap.enqueue(5, 14.1);
+        heap.enqueue(8, 19459);
+
+        assertEquals(10, heap.size());
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(heap.contains(i));
+            assertEquals(i, heap.dequeueId());
+            assertFalse(heap.contains(i));
+        }
+        assertTrue(heap.isEmpty());
+
+        heap.enqueue(3, 1);
+        assertEquals(Integer.valueOf(3), heap.dequeue());
+    }
+
+    @Test public void testDecreasePriority () {
+        for (int i = 0; i < 8; i++)
+            heap.enqueue(i, (i + 1) * 10);
+
+        assertTrue(heap.getPriority(0) == 10);
+        heap.decreasePriority(0, 5);
+        assertTrue(heap.getPriority(0) == 5);
+
+        heap.decreasePriority(6, 1);
+        assertEquals(6, heap.dequeueId());
+
+        heap.decreasePriority(3, 6);
+        heap.decreasePriority(Integer.valueOf(4), 15);
+
+        assertEquals(0, heap.dequeueId());
+        assertEquals(3, heap.dequeueId());
+        assertEquals(4, heap.dequeueId());
+        assertEquals(1, heap.dequeueId());
+    }
+
+    @Test public void testClearAndGrow () {
+        for (int i = 0; i < 10; i++)
+            heap.enqueue(i, i);
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(5));
+
+        heap.ensureCapacity(1000);
+        Random rand = new Random(1);
+        for (int i = 0; i < 1000; i++)
+            heap.enqueue(i, rand.nextDouble());
+
+        double prev = Double.NEGATIVE_INFINITY;
+        while (!heap.isEmpty()) {
+            double priority = heap.minPriority();
+            assertTrue(priority >= prev);
+            prev = priority;
+            heap.dequeueId();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class) public void testGreaterPriority () {
+        heap.enqueue(0, 10);
+        heap.enqueue(1, 20);
+
+        //Debe ser menor
+        heap.decreasePriority(0, 25);
+    }
+
+    @Test(expected = NoSuchElementException.class) public void testMissing () {
+        heap.enqueue(0, 10);
+        heap.getPriority(1);
+    }
+}
@@ -0,0 +1,110 @@
+package testing;
+
+import flightassistant.AirtimeWeighter;
+import flightassistant.FlightAssistant;
+import flightassistant.FlightGraph;
+import flightassistant.OriginAirtimeWeighter;
+import flightassistant.OriginPriceWeighter;
+import flightassistant.PriceWeighter;
+import flightassistant.StaticWeighter;
+import flightassistant.Ticket;
+import org.junit.Test;
+import utils.Day;
+import utils.Moment;
+import utils.Time;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KShortestPathsTest {
+
+    private static final int NETWORKS = 20;
+    private static final int AIRPORTS = 7;   // pocos, para poder enumerar todos los caminos
+    private static final int FLIGHTS = 25;
+    private static final int QUERIES = 10;
+    private static final double EPSILON = 1e-6;
+
+    @Test public void testAgainstAllPaths () {
+        RandomNetwork.checkNetworks(NETWORKS, AIRPORTS, FLIGHTS, QUERIES,
+            new RandomNetwork.QueryCheck() {
+                @Override public void check (RandomNetwork network, String orig, String dest,
+                    List<Day> days) {
+                    checkPaths(network, orig, dest, days);
+                }
+            });
+    }
+
+    @Test public void testHugeK () {
+        FlightAssistant fa = new FlightAssistant();
+        fa.insertAirport("AAA", 0, 0);
+        fa.insertAirport("BBB", 1, 1);
+        List<Moment> departures = new ArrayList<>();
+        departures.add(new Moment(Day.LU, new Time(10, 0)));
+        fa.insertFlight("AA", 1, 100, departures, new Time(60), "AAA", "BBB");
+
+        List<List<Ticket>> paths = fa.findCheapestPaths("AAA", "BBB", new ArrayList<Day>(),
+            Integer.MAX_VALUE);
+        assertEquals(1, paths.size());
+    }
+
+    private void checkPaths (RandomNetwork network, String orig, String dest, List<Day> days) {
+        FlightAssistant fa = network.getAssistant();
+        FlightGraph graph = fa.getGraph();
+        int k = 1 + network.getRandom().nextInt(8);
+        boolean price = network.getRandom().nextBoolean();
+
+        List<List<Ticket>> paths = price ? fa.findCheapestPaths(orig, dest, days, k)
+            : fa.findQuickestPaths(orig, dest, days, k);
+        StaticWeighter weighter = price ? PriceWeighter.WEIGHTER : AirtimeWeighter.WEIGHTER;
+        StaticWeighter originWeighter = days.isEmpty() ? weighter
+            : price ? new OriginPriceWeighter(days) : new OriginAirtimeWeighter(days);
+
+        List<Double> all = new ArrayList<>();
+        int source = fa.getAirports().get(orig).getIndex();
+        enumerate(graph, source, source, fa.getAirports().get(dest).getIndex(),
+            new boolean[graph.size()], 0, weighter, originWeighter, all);
+        Collections.sort(all);
+
+        assertEquals(Math.min(k, all.size()), paths.size());
+        for (int i = 0; i < paths.size(); i++) {
+            List<Ticket> path = paths.get(i);
+            assertTrue(RandomNetwork.isConnected(path));
+            double weight = price ? RandomNetwork.price(path) : RandomNetwork.airtime(path);
+            assertEquals(all.get(i), weight, EPSILON);
+        }
+
+        // el primero es el camino minimo
+        List<Ticket> best = price ? fa.findCheapestPath(orig, dest, days)
+            : fa.findQuickestPath(orig, dest, days);
+        if (!paths.isEmpty())
+            assertEquals(price ? RandomNetwork.price(best) : RandomNetwork.airtime(best),
+                price ? RandomNetwork.price(paths.get(0))
+                    : RandomNetwork.airtime(paths.get(0)), EPSILON);
+    }
+
+    /**
+     * Agrega el peso de todos los caminos sin ciclos desde <i>node</i> hasta <i>target</i>
+     */
+    private void enumerate (FlightGraph graph, int source, int node, int target,
+        boolean[] visited, double weight, StaticWeighter weighter, StaticWeighter originWeighter,
+        List<Double> weights) {
+        if (node == target) {
+            weights.add(weight);
+            return;
+        }
+        visited[node] = true;
+        StaticWeighter w = node == source ? originWeighter : weighter;
+        for (int e = graph.firstEdge(node); e < graph.endEdge(node); e++) {
+            int next = graph.getTarget(e);
+            Ticket ticket = w.edgeTicket(graph, e);
+            if (!visited[next] && ticket != null)
+                enumerate(graph, source, next, target, visited, weight + w.weight(ticket),
+                    weighter, originWeighter, weights);
+        }
+        visited[node] = false;
+    }
+}
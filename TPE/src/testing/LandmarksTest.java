@@ -0,0 +1,112 @@
+package testing;
+
+import flightassistant.Airport;
+import flightassistant.AirtimeWeighter;
+import flightassistant.FlightGraph;
+import flightassistant.InfinityDijkstra;
+import flightassistant.Landmarks;
+import flightassistant.LowerBound;
+import flightassistant.PriceWeighter;
+import flightassistant.SearchContext;
+import flightassistant.StaticWeighter;
+import flightassistant.Ticket;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class LandmarksTest {
+
+    private static final int NETWORKS = 10;
+    private static final int AIRPORTS = 30;
+    private static final int LANDMARKS = 8;
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * Las cotas nunca superan la distancia real, tambien con pocos vuelos, donde el grafo queda
+     * partido en varias componentes y hay aeropuertos sin vuelos
+     */
+    @Test public void testAdmissible () {
+        for (int seed = 0; seed < NETWORKS; seed++) {
+            int flights = seed % 2 == 0 ? 20 : 200;
+            RandomNetwork network = new RandomNetwork(seed, AIRPORTS, flights);
+            checkBounds(network.getAssistant().getGraph());
+            network.removeFlights(flights / 4);
+            network.getAssistant().removeAirport(network.randomAirport());  // deja un lugar libre
+            checkBounds(network.getAssistant().getGraph());
+        }
+    }
+
+    /**
+     * Con mas landmarks pedidos que aeropuertos con vuelos se eligen solo estos, sin repetir
+     */
+    @Test public void testFewCandidates () {
+        RandomNetwork network = new RandomNetwork(1, AIRPORTS, 3);
+        FlightGraph graph = network.getAssistant().getGraph();
+        Landmarks landmarks = new Landmarks(graph, AIRPORTS);
+        int withFlights = 0;
+        for (int v = 0; v < graph.size(); v++)
+            if (hasEdges(graph, v))
+                withFlights++;
+        assertEquals(withFlights, landmarks.size());
+        checkLandmarks(graph, landmarks);
+    }
+
+    private void checkBounds (FlightGraph graph) {
+        Landmarks landmarks = new Landmarks(graph, LANDMARKS);
+        checkLandmarks(graph, landmarks);
+        SearchContext ctx = new SearchContext();
+        for (int t = 0; t < graph.size(); t++) {
+            Airport target = graph.getAirport(t);
+            if (target == null)
+                continue;
+            LowerBound price = landmarks.priceBound(target);
+            LowerBound airtime = landmarks.airtimeBound(target);
+            for (int v = 0; v < graph.size(); v++) {
+                Airport origin = graph.getAirport(v);
+                if (origin == null || v == t)
+                    continue;
+                double realPrice = distance(ctx, graph, origin, target, PriceWeighter.WEIGHTER);
+                double realAirtime = distance(ctx, graph, origin, target,
+                    AirtimeWeighter.WEIGHTER);
+                assertTrue(price.estimate(v) <= realPrice + EPSILON);
+                assertTrue(airtime.estimate(v) <= realAirtime + EPSILON);
+            }
+        }
+    }
+
+    /**
+     * Los landmarks son distintos y todos tienen vuelos
+     */
+    private void checkLandmarks (FlightGraph graph, Landmarks landmarks) {
+        Set<Integer> seen = new HashSet<>();
+        for (int landmark : landmarks.getLandmarks()) {
+            assertNotNull(graph.getAirport(landmark));
+            assertTrue(hasEdges(graph, landmark));
+            assertFalse(seen.contains(landmark));
+            seen.add(landmark);
+        }
+    }
+
+    private boolean hasEdges (FlightGraph graph, int v) {
+        return graph.firstEdge(v) < graph.endEdge(v)
+            || graph.firstReverseEdge(v) < graph.endReverseEdge(v);
+    }
+
+    private double distance (SearchContext ctx, FlightGraph graph, Airport origin,
+        Airport target, StaticWeighter weighter) {
+        List<Ticket> path = InfinityDijkstra.minPath(ctx, graph, origin, target, weighter);
+        if (path.isEmpty())
+            return Double.POSITIVE_INFINITY;
+        double weight = 0;
+        for (Ticket ticket : path)
+            weight += weighter.weight(ticket);
+        return weight;
+    }
+}
@@ -97,6 +97,26 @@ public class MinHeapTest {
 
     }
 
+    @Test public void testGrowsPastCapacity () {
+        BinaryMinHeap<Integer> small = new BinaryMinHeap<Integer>(2);
+        for (int i = 0; i < 1000; i++)
+            small.enqueue(i, 1000 - i);
+
+        assertEquals(1000, small.size());
+        assertTrue(small.contains(500));
+
+        // Se desencolan y reencolan para llenar el indice de celdas borradas
+        for (int i = 999; i >= 500; i--)
+            assertEquals(Integer.valueOf(i), small.dequeue());
+        for (int i = 500; i < 1000; i++)
+            small.enqueue(i, 1000 - i);
+        small.decreasePriority(0, -1);
+
+        assertEquals(Integer.valueOf(0), small.dequeue());
+        assertEquals(Integer.valueOf(999), small.dequeue());
+        assertFalse(small.contains(0));
+    }
+
     @Test(expected = IllegalArgumentException.class) public void test () {
         heap.enqueue("A", 10);
         heap.enqueue("B", 20);
@@ -43,6 +43,15 @@ public class MomentTest {
 		
 	}
 	
+	@Test
+	public void testMinuteOfWeek() {
+		assertEquals(0, new Moment(Day.LU, new Time("00:00")).getMinuteOfWeek());
+		assertEquals(TimeConstants.MINUTES_PER_DAY + 90,
+			new Moment(Day.MA, new Time("01:30")).getMinuteOfWeek());
+		assertEquals(TimeConstants.MINUTES_PER_WEEK - 1,
+			new Moment(Day.DO, new Time("23:59")).getMinuteOfWeek());
+	}
+	
 	@Test
 	public void testAddTime() {
 		Moment m1, m2, m3;
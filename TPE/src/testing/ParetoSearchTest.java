@@ -0,0 +1,56 @@
+package testing;
+
+import flightassistant.FlightAssistant;
+import flightassistant.Ticket;
+import org.junit.Test;
+import utils.Day;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParetoSearchTest {
+
+    private static final int NETWORKS = 4;
+    private static final int AIRPORTS = 60;
+    private static final int FLIGHTS = 800;
+    private static final int QUERIES = 30;
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * Aunque las etiquetas por aeropuerto esten acotadas, el frente debe incluir el camino mas
+     * barato y el mas rapido
+     */
+    @Test public void testKeepsSingleCriterionMinima () {
+        RandomNetwork.checkNetworks(NETWORKS, AIRPORTS, FLIGHTS, QUERIES,
+            new RandomNetwork.QueryCheck() {
+                @Override public void check (RandomNetwork network, String orig, String dest,
+                    List<Day> days) {
+                    checkFront(network.getAssistant(), orig, dest, days);
+                }
+            });
+    }
+
+    private void checkFront (FlightAssistant fa, String orig, String dest, List<Day> days) {
+        List<List<Ticket>> front = fa.findParetoRoutes(orig, dest, days);
+        List<Ticket> cheapest = fa.findCheapestPath(orig, dest, days);
+        List<Ticket> quickest = fa.findQuickestPath(orig, dest, days);
+
+        if (cheapest.isEmpty()) {
+            assertTrue(front.isEmpty());
+            return;
+        }
+        assertFalse(front.isEmpty());
+        double minPrice = Double.POSITIVE_INFINITY;
+        int minAirtime = Integer.MAX_VALUE;
+        for (List<Ticket> route : front) {
+            assertTrue(RandomNetwork.isConnected(route));
+            minPrice = Math.min(minPrice, RandomNetwork.price(route));
+            minAirtime = Math.min(minAirtime, RandomNetwork.airtime(route));
+        }
+        assertEquals(RandomNetwork.price(cheapest), minPrice, EPSILON);
+        assertEquals(RandomNetwork.airtime(quickest), minAirtime);
+    }
+}
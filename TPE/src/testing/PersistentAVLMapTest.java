@@ -0,0 +1,92 @@
+package testing;
+
+import org.junit.Before;
+import org.junit.Test;
+import structures.PersistentAVLMap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentAVLMapTest {
+
+    private static final int RANDOMS = 10000; // total de número aleatorios a generar.
+    private PersistentAVLMap<Integer, Integer> map;
+    private Random rand = new Random(1);
+    private TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+
+    @Before public void setUp () {
+        map = new PersistentAVLMap<Integer, Integer>();
+        expected.clear();
+        for (int i = 0; i < RANDOMS; i++) {
+            int key = rand.nextInt(RANDOMS);
+            map.put(key, i);    // las claves repetidas actualizan el valor
+            expected.put(key, i);
+        }
+    }
+
+    @Test public void putGetTest () {
+        assertSameMap(expected, map);
+        for (int i = 0; i < RANDOMS; i++)
+            assertEquals(expected.containsKey(i), map.containsKey(i));
+    }
+
+    @Test public void removeTest () {
+        for (int i = 0; i < RANDOMS; i++) {
+            int key = rand.nextInt(RANDOMS);
+            map.remove(key);
+            expected.remove(key);
+            assertFalse(map.containsKey(key));
+        }
+        assertSameMap(expected, map);
+    }
+
+    @Test public void snapshotTest () {
+        PersistentAVLMap<Integer, Integer> snapshot = map.snapshot();
+        TreeMap<Integer, Integer> before = new TreeMap<Integer, Integer>(expected);
+        Iterator<Integer> keys = map.keyIterator();
+
+        for (int i = 0; i < RANDOMS; i++) {
+            int key = rand.nextInt(2 * RANDOMS);
+            if (rand.nextBoolean()) {
+                map.put(key, -i);
+                expected.put(key, -i);
+            } else {
+                map.remove(key);
+                expected.remove(key);
+            }
+        }
+        snapshot.put(-1, -1); // no debe verse en el mapa original
+        assertFalse(map.containsKey(-1));
+        snapshot.remove(-1);
+
+        assertEquals(new ArrayList<Integer>(before.keySet()), toList(keys));
+        assertSameMap(before, snapshot);
+        assertSameMap(expected, map);
+    }
+
+    private void assertSameMap (TreeMap<Integer, Integer> expected,
+        PersistentAVLMap<Integer, Integer> map) {
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet())
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        // los iteradores recorren las claves en orden, y los valores en el mismo orden
+        assertEquals(new ArrayList<Integer>(expected.keySet()), toList(map.keyIterator()));
+        assertEquals(new ArrayList<Integer>(expected.values()), toList(map.valueIterator()));
+        assertTrue(map.keySet().containsAll(expected.keySet()));
+    }
+
+    private List<Integer> toList (Iterator<Integer> iter) {
+        List<Integer> list = new ArrayList<Integer>();
+        while (iter.hasNext())
+            list.add(iter.next());
+        return list;
+    }
+}
@@ -0,0 +1,82 @@
+package testing;
+
+import org.junit.Before;
+import org.junit.Test;
+import structures.PersistentAVLSet;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentAVLSetTest {
+
+    private static final int RANDOMS = 10000; // total de número aleatorios a generar.
+    private PersistentAVLSet<Integer> set;
+    private Random rand = new Random();
+    private TreeSet<Integer> inserted = new TreeSet<Integer>();
+
+    @Before public void setUp () {
+        set = new PersistentAVLSet<Integer>();
+        inserted.clear();
+        for (int i = 0; i < RANDOMS; i++) {
+            int r = rand.nextInt(RANDOMS);
+            assertEquals(inserted.add(r), set.add(r));
+        }
+    }
+
+    @Test public void orderTest () {
+        assertEquals(inserted.size(), set.size());
+        assertEquals(new ArrayList<Integer>(inserted), toList(set.iterator()));
+        assertEquals(inserted.first(), set.first());
+    }
+
+    @Test public void removeTest () {
+        for (int i = 0; i < RANDOMS; i++) {
+            int r = rand.nextInt(RANDOMS);
+            assertEquals(inserted.remove(r), set.remove(r));
+            assertFalse(set.contains(r));
+        }
+        assertEquals(inserted.size(), set.size());
+        assertEquals(new ArrayList<Integer>(inserted), toList(set.iterator()));
+    }
+
+    @Test public void snapshotTest () {
+        PersistentAVLSet<Integer> snapshot = set.snapshot();
+        List<Integer> before = new ArrayList<Integer>(inserted);
+        Iterator<Integer> iter = set.iterator();
+
+        for (int i = 0; i < RANDOMS; i++) {
+            int r = rand.nextInt(2 * RANDOMS);
+            if (rand.nextBoolean())
+                set.add(r);
+            else
+                set.remove(r);
+        }
+        snapshot.add(-1); // no debe verse en el set original
+        assertFalse(set.contains(-1));
+
+        assertEquals(before, toList(iter));
+        snapshot.remove(-1);
+        assertEquals(before, toList(snapshot.iterator()));
+    }
+
+    @Test public void higherIteratorTest () {
+        int higherThan = RANDOMS / 2;
+        Set<Integer> higherSet = inserted.tailSet(higherThan, true);
+        assertEquals(new ArrayList<Integer>(higherSet), toList(set.higherIterator(higherThan)));
+    }
+
+    private List<Integer> toList (Iterator<Integer> iter) {
+        List<Integer> list = new ArrayList<Integer>();
+        while (iter.hasNext())
+            list.add(iter.next());
+        return list;
+    }
+}
@@ -0,0 +1,57 @@
+package testing;
+
+import flightassistant.Ticket;
+import flightassistant.TotalTimeEngine;
+import flightassistant.TotalTimeProfile;
+import org.junit.Test;
+import utils.Day;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProfileSearchTest {
+
+    @Test public void testSameTotalTimeAsDijkstra () {
+        RandomNetwork.checkNetworks(
+            RandomNetwork.sameTotalTimeAsDijkstra(TotalTimeEngine.PROFILE));
+    }
+
+    /**
+     * Cada salida del perfil tiene un camino continuo que sale a esa hora y cuyo tiempo total es
+     * el informado, y la mejor de todas coincide con Dijkstra sin filtro de dias
+     */
+    @Test public void testProfile () {
+        RandomNetwork.checkNetworks(new RandomNetwork.QueryCheck() {
+            @Override public void check (RandomNetwork network, String orig, String dest,
+                List<Day> days) {
+                checkProfile(network, orig, dest);
+            }
+        });
+    }
+
+    private void checkProfile (RandomNetwork network, String orig, String dest) {
+        TotalTimeProfile profile = network.getAssistant().findTotalTimeProfile(orig, dest);
+        List<Ticket> expected = network.totalTimeRoute(TotalTimeEngine.DIJKSTRA, orig, dest,
+            new LinkedList<Day>());
+        assertEquals(expected.isEmpty(), profile.size() == 0);
+        if (expected.isEmpty())
+            return;
+
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < profile.size(); i++) {
+            List<Ticket> route = profile.getRoute(i);
+            assertTrue(RandomNetwork.isConnected(route));
+            assertEquals(orig, route.get(0).getOrigin().getId());
+            assertEquals(dest, route.get(route.size() - 1).getDestination().getId());
+            assertEquals(profile.getDeparture(i), route.get(0).getDeparture().getMinuteOfWeek());
+            assertEquals(profile.getTotalTime(i), RandomNetwork.totalTime(route));
+            if (i > 0)
+                assertTrue(profile.getDeparture(i - 1) <= profile.getDeparture(i));
+            best = Math.min(best, profile.getTotalTime(i));
+        }
+        assertEquals(RandomNetwork.totalTime(expected), best);
+    }
+}
@@ -0,0 +1,247 @@
+package testing;
+
+import flightassistant.FlightAssistant;
+import flightassistant.Ticket;
+import flightassistant.TotalTimeEngine;
+import utils.Day;
+import utils.Moment;
+import utils.Time;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Red de aeropuertos y vuelos aleatoria a partir de una semilla, para comparar los distintos
+ * algoritmos de busqueda sobre los mismos datos
+ */
+public class RandomNetwork {
+
+    public static final Day[] DAYS = {Day.LU, Day.MA, Day.MI, Day.JU, Day.VI, Day.SA, Day.DO};
+
+    /** Medidas de las redes de {@link #checkNetworks(QueryCheck)} */
+    public static final int NETWORKS = 10;
+    public static final int AIRPORTS = 40;
+    public static final int FLIGHTS = 300;
+    public static final int QUERIES = 40;
+
+    private static final String AIRLINE = "AA";
+
+    private final Random rand;
+    private final FlightAssistant assistant = new FlightAssistant();
+    private final List<String> airports = new ArrayList<>();
+    private final List<Integer> flights = new ArrayList<>();
+    private int nextNumber;
+
+    /**
+     * Carga en un {@link FlightAssistant} nuevo la cantidad de aeropuertos y de vuelos dada.
+     * Cada vuelo sale uno o mas dias a la misma hora.
+     */
+    public RandomNetwork (long seed, int airportCount, int flightCount) {
+        rand = new Random(seed);
+        for (int i = 0; i < airportCount; i++) {
+            String id = "A" + (char) ('A' + i / 26) + (char) ('A' + i % 26);
+            airports.add(id);
+            assistant.insertAirport(id, rand.nextDouble() * 40 - 20, rand.nextDouble() * 60 - 30);
+        }
+        insertFlights(flightCount);
+    }
+
+    /**
+     * Agrega la cantidad dada de vuelos al azar, con numeros que no se usaron antes. Los que
+     * unirian un aeropuerto consigo mismo no se agregan.
+     */
+    public void insertFlights (int count) {
+        for (int i = 0; i < count; i++) {
+            int number = nextNumber++;
+            String orig = randomAirport();
+            String dest = randomAirport();
+            if (orig.equals(dest))
+                continue;
+            Time time = new Time(rand.nextInt(24), rand.nextInt(60));
+            List<Moment> departures = new ArrayList<>();
+            for (Day day : DAYS)
+                if (rand.nextInt(4) == 0)
+                    departures.add(new Moment(day, time));
+            if (departures.isEmpty())
+                departures.add(new Moment(DAYS[rand.nextInt(DAYS.length)], time));
+            double price = 10 + rand.nextInt(500) + rand.nextInt(100) / 100.0;
+            assistant.insertFlight(AIRLINE, number, price, departures,
+                new Time(30 + rand.nextInt(600)), orig, dest);
+            flights.add(number);
+        }
+    }
+
+    /**
+     * Comprobacion sobre una consulta entre dos aeropuertos distintos de la red
+     */
+    public abstract static class QueryCheck {
+
+        /**
+         * Se llama antes de cada tanda de consultas, con la red recien armada y despues de
+         * eliminar vuelos
+         */
+        public void prepare (RandomNetwork network) {
+        }
+
+        public abstract void check (RandomNetwork network, String orig, String dest,
+            List<Day> days);
+    }
+
+    /**
+     * Corre la comprobacion sobre {@link #NETWORKS} redes de {@link #AIRPORTS} aeropuertos y
+     * {@link #FLIGHTS} vuelos
+     */
+    public static void checkNetworks (QueryCheck check) {
+        checkNetworks(NETWORKS, AIRPORTS, FLIGHTS, QUERIES, check);
+    }
+
+    /**
+     * Para cada semilla arma una red y le hace consultas al azar, primero con todos los vuelos
+     * y despues de eliminar la quinta parte
+     * @param queries cantidad de consultas de cada tanda, sin contar las que repiten aeropuerto
+     */
+    public static void checkNetworks (int networks, int airports, int flights, int queries,
+        QueryCheck check) {
+        for (int seed = 0; seed < networks; seed++) {
+            RandomNetwork network = new RandomNetwork(seed, airports, flights);
+            network.checkQueries(queries, check);
+            network.removeFlights(flights / 5);
+            network.checkQueries(queries, check);
+        }
+    }
+
+    private void checkQueries (int queries, QueryCheck check) {
+        check.prepare(this);
+        for (int q = 0; q < queries; q++) {
+            String orig = randomAirport();
+            String dest = randomAirport();
+            if (orig.equals(dest))
+                continue;
+            check.check(this, orig, dest, randomDays());
+        }
+    }
+
+    /**
+     * Comprobacion de que el motor dado encuentra caminos con el mismo tiempo total que
+     * {@link TotalTimeEngine#DIJKSTRA}
+     */
+    public static QueryCheck sameTotalTimeAsDijkstra (final TotalTimeEngine engine) {
+        return new QueryCheck() {
+            @Override public void check (RandomNetwork network, String orig, String dest,
+                List<Day> days) {
+                List<Ticket> expected = network.totalTimeRoute(TotalTimeEngine.DIJKSTRA, orig,
+                    dest, days);
+                List<Ticket> route = network.totalTimeRoute(engine, orig, dest, days);
+                assertSameTotalTime(expected, route, days);
+            }
+        };
+    }
+
+    public FlightAssistant getAssistant () {
+        return assistant;
+    }
+
+    public Random getRandom () {
+        return rand;
+    }
+
+    public String randomAirport () {
+        return randomAirport(rand);
+    }
+
+    /**
+     * Elige un aeropuerto con el generador dado, para consultar desde otros hilos sin cambiar
+     * la secuencia de la red
+     */
+    public String randomAirport (Random random) {
+        return airports.get(random.nextInt(airports.size()));
+    }
+
+    /**
+     * Devuelve una lista de dias de salida al azar, vacia (cualquier dia) la mitad de las veces
+     */
+    public List<Day> randomDays () {
+        List<Day> days = new LinkedList<>();
+        if (rand.nextBoolean())
+            for (Day day : DAYS)
+                if (rand.nextInt(3) == 0)
+                    days.add(day);
+        return days;
+    }
+
+    /**
+     * Elimina la cantidad dada de vuelos elegidos al azar
+     */
+    public void removeFlights (int count) {
+        for (int i = 0; i < count && !flights.isEmpty(); i++)
+            assistant.removeFlight(AIRLINE, flights.remove(rand.nextInt(flights.size())));
+    }
+
+    /**
+     * Busca el camino de menor tiempo total con el motor dado
+     */
+    public List<Ticket> totalTimeRoute (TotalTimeEngine engine, String orig, String dest,
+        List<Day> days) {
+        assistant.setTotalTimeEngine(engine);
+        return assistant.findShortestTotalTimeRoute(orig, dest, days);
+    }
+
+    /**
+     * Verifica que el camino tenga el mismo tiempo total que el esperado, que sea continuo y
+     * que salga alguno de los dias pedidos
+     */
+    public static void assertSameTotalTime (List<Ticket> expected, List<Ticket> route,
+        List<Day> days) {
+        assertEquals(expected.isEmpty(), route.isEmpty());
+        if (route.isEmpty())
+            return;
+        assertTrue(isConnected(route));
+        assertTrue(days.isEmpty() || days.contains(route.get(0).getDeparture().getDay()));
+        assertEquals(totalTime(expected), totalTime(route));
+    }
+
+    public static double price (List<Ticket> route) {
+        double price = 0;
+        for (Ticket ticket : route)
+            price += ticket.getPrice();
+        return price;
+    }
+
+    public static int airtime (List<Ticket> route) {
+        int airtime = 0;
+        for (Ticket ticket : route)
+            airtime += ticket.getDuration().getMinutes();
+        return airtime;
+    }
+
+    /**
+     * Tiempo total en minutos desde la salida del primer vuelo hasta la llegada del ultimo
+     */
+    public static int totalTime (List<Ticket> route) {
+        if (route.isEmpty())
+            return 0;
+        int total = 0;
+        Moment previous = route.get(0).getDeparture();
+        for (Ticket ticket : route) {
+            total += previous.howMuchUntil(ticket.getDeparture()).getMinutes()
+                + ticket.getDuration().getMinutes();
+            previous = ticket.getArrival();
+        }
+        return total;
+    }
+
+    /**
+     * Verifica que cada vuelo salga del aeropuerto al que llega el anterior
+     */
+    public static boolean isConnected (List<Ticket> route) {
+        for (int i = 1; i < route.size(); i++)
+            if (!route.get(i).getOrigin().equals(route.get(i - 1).getDestination()))
+                return false;
+        return true;
+    }
+}
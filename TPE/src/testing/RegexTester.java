@@ -83,17 +83,24 @@ public class RegexTester {
 
 
     @Test public void testRoute () {
-        //	src=[origen] dst=[destino] priority={ft|pr|tt} *weekdays=[diasSemana]
+        //	src=[origen] dst=[destino] priority={ft|pr|tt} *weekdays=[diasSemana] *alternatives=[k]
 
         String[] validInput = new String[] {"src=AAA dst=BUE priority=ft weekdays=Lu",
             "src=AAA dst=BUE priority=pr weekdays=Lu", "src=AAA dst=BUE priority=tt weekdays=Lu",
             "src=AAA dst=BUE priority=ft weekdays=Lu-Mi-Ma-Ju-Sa", "src=AcB dst=abc priority=pr",
-            "src=AAA dst=BUE priority=ft",};
+            "src=AAA dst=BUE priority=ft", "src=AAA dst=BUE priority=pr alternatives=3",
+            "src=AAA dst=BUE priority=ft weekdays=Lu-Ma alternatives=12",
+            "src=AAA dst=BUE priority=pr alternatives=100",};
 
         String[] invalidInput = new String[] {"src=AAAA dst=BUE priority=ft weekdays=Lu",
             "src=AAA dst=BUUE priority=pr weekdays=Lu", "src=AAA dst=BUE priority=p weekdays=Lu",
             "src=AAA dst=BUE priority= weekdays=Ju-Sa", "src=AcB dst=abc priority=pt weekdays=",
-            "src=AAA priority=ft"};
+            "src=AAA priority=ft", "src=AAA dst=BUE priority=tt alternatives=2",
+            "src=AAA dst=BUE priority=pr alternatives=0",
+            "src=AAA dst=BUE priority=pr alternatives=",
+            "src=AAA dst=BUE priority=pr alternatives=1000",
+            "src=AAA dst=BUE priority=ft alternatives=300000000",
+            "src=AAA dst=BUE priority=ft alternatives=99999999999"};
 
 
         for (String s : validInput) {
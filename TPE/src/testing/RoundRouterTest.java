@@ -0,0 +1,60 @@
+package testing;
+
+import flightassistant.FlightAssistant;
+import flightassistant.Ticket;
+import flightassistant.TotalTimeEngine;
+import org.junit.Test;
+import utils.Day;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RoundRouterTest {
+
+    @Test public void testFrontAgainstDijkstra () {
+        RandomNetwork.checkNetworks(new RandomNetwork.QueryCheck() {
+            @Override public void check (RandomNetwork network, String orig, String dest,
+                List<Day> days) {
+                checkFront(network, orig, dest, days);
+            }
+        });
+    }
+
+    private void checkFront (RandomNetwork network, String orig, String dest, List<Day> days) {
+        FlightAssistant fa = network.getAssistant();
+        List<Ticket> expected = network.totalTimeRoute(TotalTimeEngine.DIJKSTRA, orig, dest, days);
+        List<List<Ticket>> front = fa.findRoutesByTransfers(orig, dest, days);
+
+        assertEquals(expected.isEmpty(), front.isEmpty());
+        if (front.isEmpty())
+            return;
+        // cada camino usa mas vuelos y es mas rapido que el anterior
+        for (int i = 0; i < front.size(); i++) {
+            List<Ticket> route = front.get(i);
+            assertTrue(RandomNetwork.isConnected(route));
+            assertTrue(days.isEmpty() || days.contains(route.get(0).getDeparture().getDay()));
+            if (i > 0) {
+                assertTrue(front.get(i - 1).size() < route.size());
+                assertTrue(RandomNetwork.totalTime(front.get(i - 1))
+                    > RandomNetwork.totalTime(route));
+            }
+        }
+        // el ultimo es el de menor tiempo total sin limite de vuelos
+        RandomNetwork.assertSameTotalTime(expected, front.get(front.size() - 1), days);
+
+        // con un limite de vuelos queda la parte del frente que lo respeta
+        int maxFlights = 1 + network.getRandom().nextInt(4);
+        List<List<Ticket>> limited = fa.findRoutesByTransfers(orig, dest, days, maxFlights);
+        int count = 0;
+        while (count < front.size() && front.get(count).size() <= maxFlights)
+            count++;
+        assertEquals(count, limited.size());
+        for (int i = 0; i < limited.size(); i++) {
+            assertEquals(front.get(i).size(), limited.get(i).size());
+            assertEquals(RandomNetwork.totalTime(front.get(i)),
+                RandomNetwork.totalTime(limited.get(i)));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package testing;
+
+import flightassistant.Airport;
+import flightassistant.FlightAssistant;
+import flightassistant.FlightGraph;
+import flightassistant.RouteMatrix;
+import flightassistant.Ticket;
+import org.junit.Test;
+import utils.Day;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RouteMatrixTest {
+
+    private static final int NETWORKS = 5;
+    private static final int ORIGINS = 6;
+    private static final int DESTINATIONS = 8;
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * Cada celda de la matriz pesa lo mismo que el camino que se encuentra buscando ese par de
+     * aeropuertos por separado, con y sin dias de salida
+     */
+    @Test public void testSameAsPairwise () {
+        for (int seed = 0; seed < NETWORKS; seed++) {
+            RandomNetwork network = new RandomNetwork(seed, RandomNetwork.AIRPORTS,
+                RandomNetwork.FLIGHTS);
+            checkMatrices(network, new LinkedList<Day>());
+            checkMatrices(network, network.randomDays());
+            network.removeFlights(RandomNetwork.FLIGHTS / 5);
+            checkMatrices(network, new LinkedList<Day>());
+            checkMatrices(network, network.randomDays());
+        }
+    }
+
+    @Test public void testMissingAirport () {
+        RandomNetwork network = new RandomNetwork(0, RandomNetwork.AIRPORTS,
+            RandomNetwork.FLIGHTS);
+        List<String> ids = new ArrayList<>();
+        ids.add(network.randomAirport());
+        List<String> missing = new ArrayList<>(ids);
+        missing.add("ZZZ");
+        List<Day> days = new LinkedList<>();
+        assertNull(network.getAssistant().findCheapestMatrix(ids, missing, days, false));
+        assertNull(network.getAssistant().findQuickestMatrix(missing, ids, days, false));
+    }
+
+    private void checkMatrices (RandomNetwork network, List<Day> days) {
+        FlightAssistant fa = network.getAssistant();
+        List<String> origs = randomAirports(network, ORIGINS);
+        List<String> dests = randomAirports(network, DESTINATIONS);
+        // un origen que tambien es destino
+        dests.set(0, origs.get(0));
+
+        RouteMatrix cheapest = fa.findCheapestMatrix(origs, dests, days, true);
+        RouteMatrix quickest = fa.findQuickestMatrix(origs, dests, days, true);
+        checkMatrix(fa, cheapest, origs, dests, days, true);
+        checkMatrix(fa, quickest, origs, dests, days, false);
+
+        RouteMatrix weights = fa.findCheapestMatrix(origs, dests, days, false);
+        assertFalse(weights.hasItineraries());
+        for (int i = 0; i < origs.size(); i++)
+            for (int j = 0; j < dests.size(); j++)
+                assertEquals(cheapest.getWeight(i, j), weights.getWeight(i, j), EPSILON);
+    }
+
+    private List<String> randomAirports (RandomNetwork network, int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            ids.add(network.randomAirport());
+        return ids;
+    }
+
+    private void checkMatrix (FlightAssistant fa, RouteMatrix matrix, List<String> origs,
+        List<String> dests, List<Day> days, boolean price) {
+        FlightGraph graph = fa.getGraph();
+        assertEquals(origs.size(), matrix.rows());
+        assertEquals(dests.size(), matrix.columns());
+        assertTrue(matrix.hasItineraries());
+        for (int i = 0; i < origs.size(); i++) {
+            for (int j = 0; j < dests.size(); j++) {
+                String orig = origs.get(i);
+                String dest = dests.get(j);
+                List<Ticket> route = matrix.getRoute(i, j);
+                if (orig.equals(dest)) {
+                    assertTrue(route.isEmpty());
+                    assertEquals(0, matrix.getWeight(i, j), EPSILON);
+                    continue;
+                }
+                List<Ticket> expected = price
+                    ? fa.findCheapestPath(orig, dest, new LinkedList<>(days))
+                    : fa.findQuickestPath(orig, dest, new LinkedList<>(days));
+                assertEquals(expected.isEmpty(), route.isEmpty());
+                assertEquals(expected.isEmpty(), Double.isInfinite(matrix.getWeight(i, j)));
+                if (route.isEmpty())
+                    continue;
+                assertTrue(RandomNetwork.isConnected(route));
+                assertEquals(graph.getAirport(orig), route.get(0).getOrigin());
+                Airport destination = graph.getAirport(dest);
+                assertEquals(destination, route.get(route.size() - 1).getDestination());
+                assertTrue(days.isEmpty() || days.contains(route.get(0).getDeparture().getDay()));
+                if (price) {
+                    assertEquals(RandomNetwork.price(expected), RandomNetwork.price(route),
+                        EPSILON);
+                    assertEquals(RandomNetwork.price(expected), matrix.getWeight(i, j), EPSILON);
+                } else {
+                    assertEquals(RandomNetwork.airtime(expected), RandomNetwork.airtime(route));
+                    assertEquals(RandomNetwork.airtime(expected), matrix.getWeight(i, j),
+                        EPSILON);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package testing;
+
+import flightassistant.Airport;
+import flightassistant.AirtimeWeighter;
+import flightassistant.FlightGraph;
+import flightassistant.FlightSnapshot;
+import flightassistant.InfinityDijkstra;
+import flightassistant.OriginAirtimeWeighter;
+import flightassistant.OriginPriceWeighter;
+import flightassistant.PriceWeighter;
+import flightassistant.SearchContext;
+import flightassistant.ShortestPathTree;
+import flightassistant.StaticWeighter;
+import flightassistant.Ticket;
+import org.junit.Test;
+import utils.Day;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ShortestPathTreeTest {
+
+    private static final int MAX_CACHED_TREES = 64;
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * El camino del arbol a cada destino pesa lo mismo que el que encuentra Dijkstra desde el
+     * origen, con y sin dias de salida
+     */
+    @Test public void testSameWeightAsDijkstra () {
+        RandomNetwork.checkNetworks(new RandomNetwork.QueryCheck() {
+            private SearchContext ctx = new SearchContext();
+
+            @Override public void check (RandomNetwork network, String orig, String dest,
+                List<Day> days) {
+                FlightSnapshot s = network.getAssistant().snapshot();
+                checkTree(s.getGraph(), s.findCheapestTree(orig, days), days, true, ctx);
+                checkTree(s.getGraph(), s.findQuickestTree(orig, days), days, false, ctx);
+            }
+        });
+    }
+
+    /**
+     * Con el cache lleno se descarta solo el arbol que hace mas tiempo que no se usa
+     */
+    @Test public void testCacheKeepsRecentTrees () {
+        RandomNetwork network = new RandomNetwork(0, RandomNetwork.AIRPORTS,
+            RandomNetwork.FLIGHTS);
+        FlightSnapshot s = network.getAssistant().snapshot();
+        FlightGraph graph = s.getGraph();
+        List<Day> days = new LinkedList<>();
+        List<String> ids = new ArrayList<>();
+        for (int v = 0; v < graph.size(); v++)
+            if (graph.getAirport(v) != null)
+                ids.add(graph.getAirport(v).getId());
+        assertTrue(2 * ids.size() > MAX_CACHED_TREES);
+
+        List<ShortestPathTree> trees = new ArrayList<>();
+        for (int k = 0; k < MAX_CACHED_TREES; k++)
+            trees.add(tree(s, ids, k, days));
+        assertSame(trees.get(0), tree(s, ids, 0, days));
+
+        // el nuevo arbol desplaza al segundo, que es el menos usado
+        tree(s, ids, MAX_CACHED_TREES, days);
+        assertSame(trees.get(0), tree(s, ids, 0, days));
+        for (int k = 2; k < MAX_CACHED_TREES; k++)
+            assertSame(trees.get(k), tree(s, ids, k, days));
+        assertNotSame(trees.get(1), tree(s, ids, 1, days));
+    }
+
+    /**
+     * Arbol numero k: primero los mas baratos desde cada aeropuerto y despues los mas rapidos
+     */
+    private ShortestPathTree tree (FlightSnapshot s, List<String> ids, int k, List<Day> days) {
+        String orig = ids.get(k % ids.size());
+        return k < ids.size() ? s.findCheapestTree(orig, days) : s.findQuickestTree(orig, days);
+    }
+
+    private void checkTree (FlightGraph graph, ShortestPathTree tree, List<Day> days,
+        boolean price, SearchContext ctx) {
+        StaticWeighter weighter = price ? PriceWeighter.WEIGHTER : AirtimeWeighter.WEIGHTER;
+        StaticWeighter originWeighter = days.isEmpty() ? null
+            : price ? new OriginPriceWeighter(days) : new OriginAirtimeWeighter(days);
+        Airport origin = tree.getOrigin();
+        for (int v = 0; v < graph.size(); v++) {
+            Airport destination = graph.getAirport(v);
+            if (destination == null || destination == origin)
+                continue;
+            List<Ticket> expected = InfinityDijkstra.minPath(ctx, graph, origin, destination,
+                weighter, originWeighter, null);
+            List<Ticket> path = tree.pathTo(destination);
+            assertEquals(expected.isEmpty(), path.isEmpty());
+            assertEquals(!path.isEmpty(), tree.reaches(destination));
+            if (path.isEmpty())
+                continue;
+            assertTrue(RandomNetwork.isConnected(path));
+            assertEquals(origin, path.get(0).getOrigin());
+            assertEquals(destination, path.get(path.size() - 1).getDestination());
+            assertTrue(days.isEmpty() || days.contains(path.get(0).getDeparture().getDay()));
+            if (price)
+                assertEquals(RandomNetwork.price(expected), RandomNetwork.price(path), EPSILON);
+            else
+                assertEquals(RandomNetwork.airtime(expected), RandomNetwork.airtime(path));
+        }
+    }
+}
@@ -103,6 +103,63 @@ public class SimpleHashMapTest {
 
     }
 
+    @Test public void testResize () {
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        AVLHashMap<Integer, Integer> map = new AVLHashMap<Integer, Integer>(4);
+
+        // crece hasta muchos mas pares que buckets iniciales y luego se vacia casi todo
+        for (int i = 0; i < 4 * CAPACITY; i++) {
+            int key = rand.nextInt(2 * CAPACITY);
+            map.put(key, i);
+            expected.put(key, i);
+        }
+        AVLHashMap<Integer, Integer> snapshot = map.snapshot();
+        Map<Integer, Integer> snapshotExpected = new HashMap<Integer, Integer>(expected);
+        for (int i = 0; i < 4 * CAPACITY; i++) {
+            int key = rand.nextInt(2 * CAPACITY);
+            map.remove(key);
+            expected.remove(key);
+            assertTrue(map.size() == expected.size());
+        }
+
+        assertSameMap(expected, map);
+        assertSameMap(snapshotExpected, snapshot);
+    }
 
+    @Test public void testSingleEntryBuckets () {
+        // con 4 buckets los multiplos de 4 caen en el mismo bucket
+        AVLHashMap<Integer, Integer> map = new AVLHashMap<Integer, Integer>(4);
+        map.put(0, 0);
+        map.put(0, 1);
+        map.put(4, 4);
+        map.put(8, 8);
+        assertTrue(map.size() == 3);
+        assertTrue(map.get(0) == 1 && map.get(4) == 4 && map.get(8) == 8);
+        assertFalse(map.containsKey(12));
+
+        map.remove(4);
+        map.remove(0);
+        assertTrue(map.size() == 1);
+        assertTrue(map.get(8) == 8);
+        assertFalse(map.containsKey(0));
+        Iterator<Integer> iter = map.valueIterator();
+        assertTrue(iter.next() == 8);
+        assertFalse(iter.hasNext());
+
+        map.remove(8);
+        assertTrue(map.isEmpty());
+        assertFalse(map.keyIterator().hasNext());
+    }
+
+    private void assertSameMap (Map<Integer, Integer> expected, SimpleMap<Integer, Integer> map) {
+        assertTrue(map.size() == expected.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet())
+            assertTrue(entry.getValue().equals(map.get(entry.getKey())));
+        Set<Integer> keys = new HashSet<Integer>();
+        Iterator<Integer> iter = map.keyIterator();
+        while (iter.hasNext())
+            assertTrue(keys.add(iter.next()));  // sin repetidos
+        assertTrue(keys.equals(expected.keySet()));
+    }
 
 }
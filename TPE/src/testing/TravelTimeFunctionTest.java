@@ -0,0 +1,106 @@
+package testing;
+
+import flightassistant.DepartureTable;
+import flightassistant.FlightAssistant;
+import flightassistant.FlightGraph;
+import flightassistant.TravelTimeFunction;
+import org.junit.Test;
+import utils.Day;
+import utils.Moment;
+import utils.Time;
+import utils.TimeConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TravelTimeFunctionTest {
+
+    private static final int WEEK = TimeConstants.MINUTES_PER_WEEK;
+    private static final int NETWORKS = 5;
+    private static final int AIRPORTS = 5;    // pocos, para que cada arista tenga muchos vuelos
+    private static final int FLIGHTS = 200;
+
+    /**
+     * Para cada minuto de la semana la funcion vale lo mismo que el minimo de espera mas
+     * duracion entre todos los vuelos de la arista
+     */
+    @Test public void testAgainstAllTickets () {
+        for (int seed = 0; seed < NETWORKS; seed++) {
+            RandomNetwork network = new RandomNetwork(seed, AIRPORTS, FLIGHTS);
+            checkEdges(network.getAssistant().getGraph());
+            network.removeFlights(FLIGHTS / 2);
+            checkEdges(network.getAssistant().getGraph());
+        }
+    }
+
+    /**
+     * Se descartan el vuelo al que otro que sale despues le gana, el que llega a la misma hora
+     * que otro que sale despues, el que pierde contra el primero de la semana siguiente y el
+     * mas largo de dos que salen a la misma hora
+     */
+    @Test public void testDominance () {
+        FlightAssistant fa = new FlightAssistant();
+        fa.insertAirport("AAA", 0, 0);
+        fa.insertAirport("BBB", 1, 1);
+        insertFlight(fa, 1, Day.LU, 10, 0, 300);    // llega 15:00, le gana el 2
+        insertFlight(fa, 2, Day.LU, 11, 0, 120);    // llega 13:00
+        insertFlight(fa, 3, Day.LU, 11, 0, 200);    // misma salida que el 2, mas largo
+        insertFlight(fa, 4, Day.LU, 20, 0, 120);    // llega 22:00, igual que el 5
+        insertFlight(fa, 5, Day.LU, 21, 0, 60);     // llega 22:00
+        insertFlight(fa, 6, Day.DO, 23, 0, 600);    // llega el lunes 09:00, le gana el 7
+        insertFlight(fa, 7, Day.LU, 0, 30, 60);     // llega el lunes 01:30
+
+        FlightGraph graph = fa.getGraph();
+        TravelTimeFunction function = graph.getTravelTime(
+            graph.firstEdge(graph.getAirport("AAA").getIndex()));
+        assertEquals(3, function.size());
+        assertEquals(7, function.getTicket(0).getFlightId().getNumber());
+        assertEquals(2, function.getTicket(1).getFlightId().getNumber());
+        assertEquals(5, function.getTicket(2).getFlightId().getNumber());
+
+        assertEquals(0, function.next(0));
+        assertEquals(0, function.next(30));
+        assertEquals(1, function.next(31));
+        assertEquals(1, function.next(10 * 60));    // no toma el 1 aunque salga antes
+        assertEquals(180, function.travelTime(1, 10 * 60));
+        assertEquals(2, function.next(20 * 60));    // no toma el 4
+        assertEquals(120, function.travelTime(2, 20 * 60));
+        assertEquals(2, function.next(21 * 60));
+        // despues de la ultima salida vuelve al primero de la semana siguiente
+        int sundayNight = Day.LU.getDaysDifference(Day.DO) * TimeConstants.MINUTES_PER_DAY
+            + 22 * 60;
+        assertEquals(0, function.next(21 * 60 + 1));
+        assertEquals(0, function.next(sundayNight));
+        assertEquals(120 + 30 + 60, function.travelTime(0, sundayNight));
+    }
+
+    private void insertFlight (FlightAssistant fa, int number, Day day, int hour, int minute,
+        int duration) {
+        List<Moment> departures = new ArrayList<>();
+        departures.add(new Moment(day, new Time(hour, minute)));
+        fa.insertFlight("AA", number, 100, departures, new Time(duration), "AAA", "BBB");
+    }
+
+    private void checkEdges (FlightGraph graph) {
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            DepartureTable table = graph.getDepartures(e);
+            TravelTimeFunction function = graph.getTravelTime(e);
+            assertTrue(function.size() > 0 && function.size() <= table.size());
+            for (int minute = 0; minute < WEEK; minute++) {
+                int best = Integer.MAX_VALUE;
+                for (int t = 0; t < table.size(); t++) {
+                    int wait = table.getDeparture(t) - minute;
+                    best = Math.min(best, (wait < 0 ? wait + WEEK : wait) + table.getDuration(t));
+                }
+                int i = function.next(minute);
+                assertEquals(best, function.travelTime(i, minute));
+                assertEquals(best, function.travelTime(minute), 0);
+                assertEquals(function.getDeparture(i),
+                    function.getTicket(i).getDeparture().getMinuteOfWeek());
+            }
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package utils;
 
 /**
- * Constantes respecto a longitudes de nombres
+ * Constantes respecto a longitudes de nombres y limites de los comandos
  */
 public interface InputConstraints {
     int AIRPORT_NAME_LENGHT = 3;
     int AIRLINE_NAME_MAX_LENGHT = 3;
+    int MAX_ALTERNATIVES = 100;
 }
@@ -45,6 +45,13 @@ public class Moment implements /*Comparable<Moment>,*/ TimeConstants, Serializab
         return day;
     }
 
+    /**
+     * Devuelve la cantidad de minutos desde el lunes a las 00:00hs hasta este momento
+     */
+    public int getMinuteOfWeek () {
+        return Day.LU.getDaysDifference(day) * MINUTES_PER_DAY + timeOfDay.getMinutes();
+    }
+
     /**
      * Devuelve el tiempo que falta para que sea el momento que se pasa como parametro
      */
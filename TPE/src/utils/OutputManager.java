@@ -52,6 +52,17 @@ public class OutputManager {
     	print(tickets, out);
     }
 
+    /**
+     * Imprime varios caminos alternativos, uno despues del otro, en el formato configurado.
+     * @param routes caminos ordenados del mejor al peor.
+     */
+    public void printRoutes (List<List<Ticket>> routes) {
+        if (routes == null || routes.isEmpty())
+            print(null, out);
+        else for (List<Ticket> tickets : routes)
+            print(tickets, out);
+    }
+
     private void print (List<Ticket> tickets, PrintStream out) {
     	if (tickets == null || tickets.isEmpty())
     		notFoundMsg();
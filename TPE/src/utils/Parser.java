@@ -159,16 +159,37 @@ public class Parser{
         option = sc.next();
 
         List<Day> days = new LinkedList<>();
-        if (sc.hasNext()) { // Los weekDays son opcionales
+        if (sc.hasNext("weekdays=.*")) { // Los weekDays son opcionales
             sc.skip(" weekdays=");
             days = getDaysFromStr(sc.next());
             // Si no hay weekDays "days" es una lista vacía.
         }
+
+        if (sc.hasNext()) { // Pide varias alternativas
+            sc.skip(" alternatives=");
+            int alternatives = Integer.parseInt(sc.next());
+            if (alternatives > InputConstraints.MAX_ALTERNATIVES)
+                return false;
+            Output.printRoutes(findPathsWithOption(option, orig, dest, days, alternatives));
+            return true;
+        }
         List<Ticket> path = findPathWithOption(option, orig, dest, days);
         Output.printBestRoute(path);
         return true;
     }
 
+    private static List<List<Ticket>> findPathsWithOption(String option, String orig, String dest,
+        List<Day> days, int alternatives) {
+        switch (option) {
+            case "ft":
+                return flightAssistant.findQuickestPaths(orig, dest, days, alternatives);
+            case "pr":
+                return flightAssistant.findCheapestPaths(orig, dest, days, alternatives);
+            default:
+                throw new IllegalArgumentException("Invalid Option");
+        }
+    }
+
     private static List<Ticket> findPathWithOption(String option, String orig, String dest, List<Day> days) {
         List<Ticket> path = new LinkedList<>(); // para que no tire warning
         switch (option) {
@@ -32,9 +32,15 @@ public class RegexHelper implements InputConstraints {
     private static final String airportFromFileFormat = createAirportFormat("#");
 
     private static final String flightNameFormat = airlineName + spc + number;
+    private static final String weekdaysOption = "( weekdays=" + days + ")?";
+    // Hasta tantos digitos como MAX_ALTERNATIVES; el valor exacto lo controla el Parser
+    private static final String alternatives =
+        "[1-9][0-9]{0," + (String.valueOf(MAX_ALTERNATIVES).length() - 1) + "}";
+    // Solo se pueden pedir alternativas para ft y pr
     private static final String routeFormat =
-        "src=" + airportName + spc + "dst=" + airportName + spc + "priority=(ft|pr|tt)"
-            + "( weekdays=" + days + ")?";
+        "src=" + airportName + spc + "dst=" + airportName + spc
+            + "(priority=(ft|pr|tt)" + weekdaysOption
+            + "|priority=(ft|pr)" + weekdaysOption + " alternatives=" + alternatives + ")";
 
     private static String createFlightFormat (String separator) {
         return airlineName + separator + number + separator + days + separator + airportName